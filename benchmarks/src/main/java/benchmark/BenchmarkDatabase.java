@@ -0,0 +1,119 @@
+package benchmark;
+
+import db.Backend;
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+public class BenchmarkDatabase {
+
+    public static final int DEPARTMENTS = 20;
+    private static final int SEED_CHUNK = 10_000;
+
+    public static ConnectionPool open(String name, int sellers) {
+        Properties props = new Properties();
+        props.setProperty("dburl", "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+        props.setProperty("user", "sa");
+        props.setProperty("password", "");
+        props.setProperty("pool.minSize", "1");
+        props.setProperty("pool.maxSize", "4");
+        ConnectionPool pool = new ConnectionPool(props);
+        createSchema(pool);
+        seed(pool, sellers);
+        return pool;
+    }
+
+    private static void createSchema(ConnectionPool pool) {
+        Connection conn = null;
+        Statement st = null;
+        try {
+            conn = pool.getConnection();
+            st = conn.createStatement();
+            st.execute("DROP TABLE IF EXISTS change_log");
+            st.execute("DROP TABLE IF EXISTS seller");
+            st.execute("DROP TABLE IF EXISTS department");
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+        Backend.H2.createSchema(pool);
+    }
+
+    private static void seed(ConnectionPool pool, int sellers) {
+        DepartmentDao departmentDao = new DepartmentDaoJDBC(pool);
+        List<Department> departments = new ArrayList<>();
+        for (int i = 1; i <= DEPARTMENTS; i++) {
+            Department dep = new Department(null, "Department " + i);
+            departmentDao.insert(dep);
+            departments.add(dep);
+        }
+
+        SellerDao sellerDao = new SellerDaoJDBC(pool);
+        Random random = new Random(42);
+        Calendar calendar = Calendar.getInstance();
+        List<Seller> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 1; i <= sellers; i++) {
+            calendar.set(1950 + random.nextInt(55), random.nextInt(12), 1 + random.nextInt(28), 0, 0, 0);
+            chunk.add(new Seller(null, "Seller " + i, "seller" + i + "@example.com", calendar.getTime(),
+                    1000.0 + random.nextInt(9000), departments.get(random.nextInt(DEPARTMENTS))));
+            if (chunk.size() == SEED_CHUNK || i == sellers) {
+                sellerDao.insertAll(chunk, SEED_CHUNK);
+                chunk.clear();
+            }
+        }
+    }
+
+    public static long maxId(ConnectionPool pool, String table) {
+        Connection conn = null;
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.getConnection();
+            st = conn.createStatement();
+            rs = st.executeQuery("SELECT COALESCE(MAX(Id), 0) FROM " + table);
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    public static int deleteAbove(ConnectionPool pool, String table, long maxId) {
+        Connection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = pool.getConnection();
+            st = conn.prepareStatement("DELETE FROM " + table + " WHERE Id > ?");
+            st.setLong(1, maxId);
+            return st.executeUpdate();
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+import model.dao.DepartmentCache;
+import model.dao.SellerDao;
+import model.dao.SellerFilter;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int PAGE = 1_000;
+
+    private ConnectionPool pool;
+    private SellerDao sellerDao;
+    private SellerFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = BenchmarkDatabase.open("mapping", ROWS);
+        sellerDao = new SellerDaoJDBC(pool);
+        filter = new SellerFilter().withSort(SellerFilter.SortColumn.ID, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public List<Seller> dao() {
+        return sellerDao.findRange(filter, 0, PAGE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public List<Seller> byLabel() {
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.getConnection();
+            st = conn.prepareStatement(
+                    "SELECT seller.*,department.Name as DepName "
+                            + "FROM seller INNER JOIN department "
+                            + "ON seller.DepartmentId = department.Id "
+                            + "ORDER BY seller.Id ASC LIMIT ?");
+            st.setInt(1, PAGE);
+            rs = st.executeQuery();
+            List<Seller> list = new ArrayList<>();
+            while (rs.next()) {
+                Department dep = DepartmentCache.canonicalize(rs.getInt("DepartmentId"), rs.getString("DepName"));
+                Seller obj = new Seller();
+                obj.setId(rs.getInt("Id"));
+                obj.setName(rs.getString("Name"));
+                obj.setEmail(rs.getString("Email"));
+                obj.setBaseSalary(rs.getDouble("BaseSalary"));
+                obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
+                obj.setVersion(rs.getInt("Version"));
+                obj.setDepartment(dep);
+                list.add(obj);
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import db.ConnectionPool;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SellerDaoBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int sellers;
+
+    private ConnectionPool pool;
+    private SellerDao sellerDao;
+    private DepartmentDao departmentDao;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = BenchmarkDatabase.open("sellers" + sellers, sellers);
+        sellerDao = new SellerDaoJDBC(pool);
+        departmentDao = new DepartmentDaoJDBC(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public List<Seller> findAll() {
+        return sellerDao.findAll();
+    }
+
+    @Benchmark
+    public Seller findById() {
+        return sellerDao.findById(1 + ThreadLocalRandom.current().nextInt(sellers));
+    }
+
+    @Benchmark
+    public List<Department> findAllDepartments() {
+        return departmentDao.findAll();
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import db.ConnectionPool;
+import model.dao.SellerDao;
+import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SellerDaoWriteBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int sellers;
+
+    private ConnectionPool pool;
+    private SellerDao sellerDao;
+    private Department department;
+    private long seededSellerId;
+    private long seededChangeId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = BenchmarkDatabase.open("writes" + sellers, sellers);
+        sellerDao = new SellerDaoJDBC(pool);
+        department = new DepartmentDaoJDBC(pool).findById(1);
+        seededSellerId = BenchmarkDatabase.maxId(pool, "seller");
+        seededChangeId = BenchmarkDatabase.maxId(pool, "change_log");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        BenchmarkDatabase.deleteAbove(pool, "seller", seededSellerId);
+        BenchmarkDatabase.deleteAbove(pool, "change_log", seededChangeId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public void insert(Blackhole blackhole) {
+        Seller seller = new Seller(null, "Benchmark seller", "bench@example.com", new Date(), 2500.0, department);
+        sellerDao.insert(seller);
+        blackhole.consume(seller.getId());
+    }
+}
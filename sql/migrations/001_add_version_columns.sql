@@ -0,0 +1,3 @@
+-- Optimistic locking: every UPDATE matches on the version it read and increments it.
+ALTER TABLE department ADD COLUMN Version INT NOT NULL DEFAULT 0;
+ALTER TABLE seller ADD COLUMN Version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Change feed outbox: every seller/department write appends a row in the same transaction.
+-- Clients tail it by Id and skip their own Origin.
+CREATE TABLE change_log (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  EntityType VARCHAR(20) NOT NULL,
+  EntityId INT NOT NULL,
+  ChangeType VARCHAR(10) NOT NULL,
+  Origin CHAR(36) NOT NULL,
+  CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (Id),
+  KEY ix_change_log_created (CreatedAt)
+);
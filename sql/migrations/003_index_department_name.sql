@@ -0,0 +1,2 @@
+-- Department picker: prefix search on Name (LIKE 'x%') ordered by Name.
+CREATE INDEX ix_department_name ON department (Name);
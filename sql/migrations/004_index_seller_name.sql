@@ -0,0 +1,2 @@
+-- Keyset paging: findPage orders by (Name, Id) and seeks past the last row of the previous page.
+CREATE INDEX ix_seller_name ON seller (Name, Id);
@@ -1,14 +1,27 @@
 package application;
 
+import db.DB;
+import db.DbException;
+import gui.util.ViewRegistry;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.services.ChangeFeed;
+import model.services.ServiceExecutor;
+import model.services.ServiceFactory;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 
 public class Program extends Application {
+    private static final System.Logger LOGGER = System.getLogger(Program.class.getName());
+    private static final String[] PRELOADED_VIEWS = {
+            "/gui/SellerList.fxml", "/gui/DepartmentList.fxml", "/gui/SellerForm.fxml", "/gui/DepartmentForm.fxml"
+    };
+
     private static Scene mainStage;
 
     public static void main(String[] args) {
@@ -21,6 +34,7 @@ public class Program extends Application {
 
     @Override
     public synchronized void start(Stage stage) throws IOException {
+        long start = System.nanoTime();
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/gui/MainView.fxml"));
         ScrollPane scrollPane = fxmlLoader.load();
 
@@ -30,6 +44,43 @@ public class Program extends Application {
         mainStage = new Scene(scrollPane);
         stage.setScene(mainStage);
         stage.setTitle("CRUD Manager base data");
+        mainStage.addPostLayoutPulseListener(new Runnable() {
+            private boolean done = false;
+
+            @Override
+            public void run() {
+                if (done) return;
+                done = true;
+                Platform.runLater(() -> mainStage.removePostLayoutPulseListener(this));
+                ViewRegistry.logElapsed("Time to first frame since start()", start);
+                LOGGER.log(System.Logger.Level.INFO, "Time to first frame since JVM start in "
+                        + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+                ServiceExecutor.runAsync(Program::startBackgroundServices);
+                if (Boolean.parseBoolean(System.getProperty("views.preload", "true"))) {
+                    ViewRegistry.warmUp(PRELOADED_VIEWS);
+                }
+            }
+        });
         stage.show();
     }
+
+    private static void startBackgroundServices() {
+        try {
+            ServiceFactory.getSellerSearchIndex().loadAsync();
+        } catch (DbException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Search index not started: " + e.getMessage());
+        }
+        try {
+            ChangeFeed.start();
+        } catch (DbException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Change feed not started: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        ChangeFeed.stop();
+        ServiceExecutor.shutdown();
+        DB.closePool();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Properties;
+
+public enum Backend {
+
+    MYSQL("jdbc:mysql:", null, null),
+    H2("jdbc:h2:", "/db/h2-schema.sql", "/db/seed.sql");
+
+    public static final String DEFAULT_H2_URL = "jdbc:h2:file:./data/workshop;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private final String urlPrefix;
+    private final String schemaScript;
+    private final String seedScript;
+
+    Backend(String urlPrefix, String schemaScript, String seedScript) {
+        this.urlPrefix = urlPrefix;
+        this.schemaScript = schemaScript;
+        this.seedScript = seedScript;
+    }
+
+    public static Backend of(Properties props) {
+        String name = props.getProperty("db.backend");
+        if (name != null && !name.isBlank()) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new DbException("Unknown db.backend: " + name);
+            }
+        }
+        String url = props.getProperty("dburl", "");
+        for (Backend backend : values()) {
+            if (url.startsWith(backend.urlPrefix)) return backend;
+        }
+        return MYSQL;
+    }
+
+    public boolean isEmbedded() {
+        return schemaScript != null;
+    }
+
+    public String url(Properties props) {
+        String url = props.getProperty("dburl", "");
+        if (url.startsWith(urlPrefix)) return url;
+        if (this == H2) return props.getProperty("h2.url", DEFAULT_H2_URL);
+        throw new DbException("dburl is not a " + name() + " url: " + url);
+    }
+
+    public ConnectionPool open(Properties props) {
+        Properties resolved = new Properties();
+        resolved.putAll(props);
+        resolved.setProperty("dburl", url(props));
+        ConnectionPool pool = new ConnectionPool(resolved);
+        if (!isEmbedded()) return pool;
+        try {
+            createSchema(pool);
+            if (Boolean.parseBoolean(props.getProperty("db.seed", "true"))) seed(pool);
+            return pool;
+        } catch (DbException e) {
+            pool.close();
+            throw e;
+        }
+    }
+
+    public void createSchema(ConnectionPool pool) {
+        if (schemaScript != null) runScript(pool, schemaScript);
+    }
+
+    public void seed(ConnectionPool pool) {
+        if (seedScript != null && isEmpty(pool, "department")) runScript(pool, seedScript);
+    }
+
+    private static boolean isEmpty(ConnectionPool pool, String table) {
+        Connection conn = null;
+        Statement st = null;
+        ResultSet rs = null;
+        try {
+            conn = pool.getConnection();
+            st = conn.createStatement();
+            rs = st.executeQuery("SELECT COUNT(*) FROM " + table);
+            return !rs.next() || rs.getLong(1) == 0;
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeResultSet(rs);
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+
+    private static void runScript(ConnectionPool pool, String resource) {
+        String script;
+        try (InputStream in = Backend.class.getResourceAsStream(resource)) {
+            if (in == null) throw new DbException("Script not found: " + resource);
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DbException(e.getMessage());
+        }
+
+        Connection conn = null;
+        Statement st = null;
+        try {
+            conn = pool.getConnection();
+            conn.setAutoCommit(false);
+            st = conn.createStatement();
+            StringBuilder sql = new StringBuilder();
+            for (String line : script.split("\\R")) {
+                if (line.isBlank() || line.trim().startsWith("--")) continue;
+                sql.append(line).append('\n');
+                if (line.trim().endsWith(";")) {
+                    st.execute(sql.substring(0, sql.lastIndexOf(";")));
+                    sql.setLength(0);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            DB.rollback(conn);
+            throw new DbException(resource + ": " + e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+        }
+    }
+}
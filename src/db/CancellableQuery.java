@@ -0,0 +1,50 @@
+package db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+public class CancellableQuery {
+
+    private static final ThreadLocal<CancellableQuery> current = new ThreadLocal<>();
+
+    private Statement statement;
+    private boolean cancelled = false;
+
+    public <T> T run(Supplier<T> action) {
+        current.set(this);
+        try {
+            return action.get();
+        } finally {
+            current.remove();
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // the statement already finished or the driver cannot cancel it
+            }
+        }
+    }
+
+    public static void register(Statement st) throws SQLException {
+        CancellableQuery query = current.get();
+        if (query == null) return;
+        synchronized (query) {
+            if (query.cancelled) throw new SQLException("Query cancelled.", "HY008");
+            query.statement = st;
+        }
+    }
+
+    public static void unregister(Statement st) {
+        CancellableQuery query = current.get();
+        if (query == null) return;
+        synchronized (query) {
+            if (query.statement == st) query.statement = null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+    private static final System.Logger LOGGER = System.getLogger(ConnectionPool.class.getName());
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final Set<String> DRIVER_KEYS = Set.of("user", "password");
+    private static final String DRIVER_PREFIX = "driver.";
+
+    private final String url;
+    private final Properties driverProps;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionThresholdMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<PooledConnection> transaction = new ThreadLocal<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(Properties props) {
+        this.url = props.getProperty("dburl");
+        if (url == null) throw new DbException("Property 'dburl' was not informed.");
+        this.driverProps = new Properties();
+        for (String key : props.stringPropertyNames()) {
+            if (DRIVER_KEYS.contains(key)) driverProps.setProperty(key, props.getProperty(key));
+            else if (key.startsWith(DRIVER_PREFIX) && key.length() > DRIVER_PREFIX.length())
+                driverProps.setProperty(key.substring(DRIVER_PREFIX.length()), props.getProperty(key));
+        }
+        this.minSize = intProperty(props, "pool.minSize", 1);
+        this.maxSize = intProperty(props, "pool.maxSize", 10);
+        this.acquireTimeoutMillis = intProperty(props, "pool.acquireTimeoutMs", 30000);
+        this.idleTimeoutMillis = intProperty(props, "pool.idleTimeoutMs", 600000);
+        this.leakDetectionThresholdMillis = intProperty(props, "pool.leakDetectionThresholdMs", 0);
+        this.validationTimeoutSeconds = intProperty(props, "pool.validationTimeoutSec", 2);
+        this.statementCacheSize = intProperty(props, "pool.statementCacheSize", 50);
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+            throw new DbException("Invalid pool size: min=" + minSize + ", max=" + maxSize + ".");
+
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(30000, idleTimeoutMillis / 2));
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+        fillToMinimum();
+    }
+
+    public Connection getConnection() {
+        PooledConnection bound = transaction.get();
+        if (bound != null) return bound.proxy(false);
+        return borrow().proxy(true);
+    }
+
+    public void beginTransaction() {
+        if (transaction.get() != null) throw new DbException("A transaction is already active on this thread.");
+        PooledConnection pc = borrow();
+        try {
+            pc.begin();
+        } catch (SQLException e) {
+            release(pc);
+            throw new DbException(e.getMessage());
+        }
+        transaction.set(pc);
+    }
+
+    public boolean isInTransaction() {
+        return transaction.get() != null;
+    }
+
+    public void commit() {
+        try {
+            boundTransaction().commit();
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    public void rollback() {
+        try {
+            boundTransaction().rollback();
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    public void endTransaction() {
+        PooledConnection pc = transaction.get();
+        if (pc == null) return;
+        transaction.remove();
+        release(pc);
+    }
+
+    private PooledConnection boundTransaction() {
+        PooledConnection pc = transaction.get();
+        if (pc == null) throw new DbException("No transaction is active on this thread.");
+        return pc;
+    }
+
+    private PooledConnection borrow() {
+        if (closed) throw new DbException("Connection pool is closed.");
+        QueryTimer timer = QueryMetrics.start("ConnectionPool.acquire");
+        try {
+            acquirePermit();
+            try {
+                PooledConnection pc = takeIdle();
+                if (pc == null) pc = openConnection();
+                pc.borrow(leakDetectionThresholdMillis > 0);
+                borrowed.add(pc);
+                return pc;
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS))
+                throw new DbException("Timeout after " + acquireTimeoutMillis + " ms waiting for a database connection.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbException("Interrupted while waiting for a database connection.");
+        }
+    }
+
+    @Override
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) pc.closePhysical();
+    }
+
+    void release(PooledConnection pc) {
+        borrowed.remove(pc);
+        try {
+            if (closed || !pc.reset()) pc.closePhysical();
+            else idle.offerFirst(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pc.getLastReturned() < VALIDATION_BYPASS_MILLIS || pc.isValid(validationTimeoutSeconds))
+                return pc;
+            LOGGER.log(System.Logger.Level.INFO, "Discarding broken pooled connection.");
+            pc.closePhysical();
+        }
+        return null;
+    }
+
+    private PooledConnection openConnection() {
+        try {
+            return new PooledConnection(this, DriverManager.getConnection(url, driverProps),
+                    new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses));
+        } catch (SQLException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pc : idle) {
+            if (idle.size() + borrowed.size() <= minSize) break;
+            if (now - pc.getLastReturned() > idleTimeoutMillis && idle.remove(pc)) pc.closePhysical();
+        }
+        if (leakDetectionThresholdMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                if (pc.checkLeak(now, leakDetectionThresholdMillis)) {
+                    LOGGER.log(System.Logger.Level.WARNING,
+                            "Connection borrowed for more than " + leakDetectionThresholdMillis + " ms, possible leak.",
+                            pc.getBorrowTrace());
+                }
+            }
+        }
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (!closed && idle.size() + borrowed.size() < minSize && permits.tryAcquire()) {
+            try {
+                idle.offerLast(openConnection());
+            } catch (DbException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Could not open pooled connection: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Property '" + key + "' must be an integer: " + value);
+        }
+    }
+}
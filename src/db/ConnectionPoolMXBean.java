@@ -0,0 +1,14 @@
+package db;
+
+public interface ConnectionPoolMXBean {
+
+    int getActiveCount();
+
+    int getIdleCount();
+
+    int getMaxSize();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+}
@@ -7,22 +7,61 @@ import java.util.Properties;
 
 public class DB {
 
-    private static Connection conn = null;
+    private static ConnectionPool pool = null;
+    private static ReplicaRouter router = null;
+    private static Backend backend = null;
+
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            Properties props = loadProperties();
+            QueryMetrics.configure(props);
+            backend = Backend.of(props);
+            pool = backend.open(props);
+            QueryMetrics.register("ConnectionPool", "default", pool);
+        }
+        return pool;
+    }
+
+    public static synchronized ReplicaRouter getRouter() {
+        if (router == null) {
+            ConnectionPool primary = getPool();
+            router = backend.isEmbedded() ? new ReplicaRouter(primary) : new ReplicaRouter(primary, loadProperties());
+        }
+        return router;
+    }
+
+    public static synchronized Backend getBackend() {
+        getPool();
+        return backend;
+    }
 
     public static Connection getConnection() {
-        if (conn == null) {
-            try {
-                Properties props = loadProperties();
-                String url = props.getProperty("dburl");
-                conn = DriverManager.getConnection(url, props);
-            } catch (SQLException e) {
-                throw new DbException(e.getMessage());
-            }
+        return getPool().getConnection();
+    }
+
+    public static synchronized void closePool() {
+        if (router != null) {
+            router.close();
+            router = null;
+        }
+        if (pool != null) {
+            QueryMetrics.unregister("ConnectionPool", "default");
+            pool.close();
+            pool = null;
         }
-        return conn;
     }
 
-    public static void closeConnection() {
+    public static Properties loadProperties() {
+        try (FileInputStream fs = new FileInputStream("db.properties")) {
+            Properties props = new Properties();
+            props.load(fs);
+            return props;
+        } catch (IOException e) {
+            throw new DbException(e.getMessage());
+        }
+    }
+
+    public static void closeConnection(Connection conn) {
         if (conn != null) {
             try {
                 conn.close();
@@ -32,13 +71,28 @@ public class DB {
         }
     }
 
-    private static Properties loadProperties() {
-        try (FileInputStream fs = new FileInputStream("db.properties")) {
-            Properties props = new Properties();
-            props.load(fs);
-            return props;
-        } catch (IOException e) {
-            throw new DbException(e.getMessage());
+    public static boolean isDataError(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException || t instanceof SQLDataException) return true;
+            if (t instanceof SQLException sql) {
+                if (isDataState(sql.getSQLState())) return true;
+                if (sql.getNextException() != null && isDataError(sql.getNextException())) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDataState(String state) {
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    public static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                throw new DbException(e.getMessage());
+            }
         }
     }
 
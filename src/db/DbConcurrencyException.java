@@ -0,0 +1,7 @@
+package db;
+
+public class DbConcurrencyException extends DbException {
+    public DbConcurrencyException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,147 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class PooledConnection {
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private volatile long borrowedAt;
+    private volatile long lastReturned = System.currentTimeMillis();
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+    private boolean pending = false;
+
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statementCache) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+    }
+
+    void borrow(boolean traceBorrower) {
+        borrowedAt = System.currentTimeMillis();
+        borrowTrace = traceBorrower ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+    }
+
+    Connection proxy(boolean releaseOnClose) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handle(releaseOnClose));
+    }
+
+    void begin() throws SQLException {
+        physical.setAutoCommit(false);
+    }
+
+    void commit() throws SQLException {
+        physical.commit();
+        pending = false;
+    }
+
+    void rollback() throws SQLException {
+        physical.rollback();
+        pending = false;
+    }
+
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return physical.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    boolean reset() {
+        lastReturned = System.currentTimeMillis();
+        try {
+            if (physical.isClosed()) return false;
+            if (!physical.getAutoCommit()) {
+                if (pending) physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            pending = false;
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    boolean checkLeak(long now, long threshold) {
+        if (leakReported || now - borrowedAt <= threshold) return false;
+        leakReported = true;
+        return true;
+    }
+
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    long getLastReturned() {
+        return lastReturned;
+    }
+
+    void closePhysical() {
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // already broken, nothing left to release
+        }
+    }
+
+    private void trackPending(String methodName, Object[] args) {
+        if (methodName.equals("createStatement") || methodName.equals("prepareCall")) pending = true;
+        else if (methodName.equals("commit")) pending = false;
+        else if (methodName.equals("rollback") && args == null) pending = false;
+        else if (methodName.equals("setAutoCommit") && (Boolean) args[0]) pending = false;
+    }
+
+    private class Handle implements InvocationHandler {
+
+        private final boolean releaseOnClose;
+        private boolean closed = false;
+
+        Handle(boolean releaseOnClose) {
+            this.releaseOnClose = releaseOnClose;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        if (releaseOnClose) pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "prepareStatement":
+                    if (closed) throw new SQLException("Connection was already returned to the pool.");
+                    pending = true;
+                    return statementCache.prepare(physical, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    if (closed) throw new SQLException("Connection was already returned to the pool.");
+                    Object result;
+                    try {
+                        result = method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    trackPending(method.getName(), args);
+                    return result;
+            }
+        }
+    }
+}
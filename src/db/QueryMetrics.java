@@ -0,0 +1,93 @@
+package db;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class QueryMetrics {
+
+    private static final System.Logger LOGGER = System.getLogger(QueryMetrics.class.getName());
+    private static final String JMX_DOMAIN = "workshopjavafxjdbc";
+
+    private static final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private static volatile long slowQueryThresholdNanos = 0;
+
+    public static void configure(Properties props) {
+        String value = props.getProperty("metrics.slowQueryThresholdMs");
+        if (value == null || value.isBlank()) return;
+        try {
+            setSlowQueryThresholdMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new DbException("Property 'metrics.slowQueryThresholdMs' must be an integer: " + value);
+        }
+    }
+
+    public static void setSlowQueryThresholdMillis(long millis) {
+        slowQueryThresholdNanos = Math.max(0, millis) * 1_000_000;
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdNanos / 1_000_000;
+    }
+
+    public static QueryTimer start(String name) {
+        QueryStats queryStats = stats.get(name);
+        if (queryStats == null) {
+            queryStats = stats.computeIfAbsent(name, key -> {
+                QueryStats created = new QueryStats(key);
+                register("Query", key, created);
+                return created;
+            });
+        }
+        return new QueryTimer(queryStats);
+    }
+
+    public static List<QueryStats> snapshot() {
+        List<QueryStats> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparing(QueryStats::getName));
+        return list;
+    }
+
+    public static void reset() {
+        for (QueryStats queryStats : stats.values()) queryStats.reset();
+    }
+
+    static void checkSlow(String name, long nanos, long rows) {
+        long threshold = slowQueryThresholdNanos;
+        if (threshold > 0 && nanos >= threshold) {
+            LOGGER.log(System.Logger.Level.WARNING, String.format("Slow query %s: %.1f ms, %d rows (threshold %d ms)",
+                    name, nanos / 1_000_000.0, rows, threshold / 1_000_000));
+        }
+    }
+
+    static void register(String type, String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(type, name);
+            if (!server.isRegistered(objectName)) server.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Could not register MBean " + name + ": " + e.getMessage());
+        }
+    }
+
+    static void unregister(String type, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(type, name);
+            if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Could not unregister MBean " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
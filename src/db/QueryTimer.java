@@ -0,0 +1,27 @@
+package db;
+
+public class QueryTimer {
+
+    private final QueryStats stats;
+    private final long start = System.nanoTime();
+    private long rows = 0;
+    private boolean failed = false;
+
+    QueryTimer(QueryStats stats) {
+        this.stats = stats;
+    }
+
+    public void rows(long rows) {
+        this.rows = rows;
+    }
+
+    public void fail() {
+        failed = true;
+    }
+
+    public void stop() {
+        long elapsed = System.nanoTime() - start;
+        stats.record(elapsed, rows, failed);
+        QueryMetrics.checkSlow(stats.getName(), elapsed, rows);
+    }
+}
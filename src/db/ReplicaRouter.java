@@ -0,0 +1,161 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRouter {
+
+    private static final System.Logger LOGGER = System.getLogger(ReplicaRouter.class.getName());
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long readYourWritesMillis;
+    private final int validationTimeoutSeconds;
+    private final ScheduledExecutorService healthChecker;
+    private volatile long lastWrite = 0;
+
+    public ReplicaRouter(ConnectionPool primary) {
+        this.primary = primary;
+        this.readYourWritesMillis = 0;
+        this.validationTimeoutSeconds = 0;
+        this.healthChecker = null;
+    }
+
+    public ReplicaRouter(ConnectionPool primary, Properties props) {
+        this.primary = primary;
+        this.readYourWritesMillis = longProperty(props, "replica.readYourWritesMs", 5000);
+        this.validationTimeoutSeconds = (int) longProperty(props, "pool.validationTimeoutSec", 2);
+        String urls = props.getProperty("replicaUrls", "");
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) continue;
+            Properties replicaProps = new Properties();
+            replicaProps.putAll(props);
+            replicaProps.setProperty("dburl", url.trim());
+            replicaProps.remove("replicaUrls");
+            try {
+                replicas.add(new Replica(url.trim(), new ConnectionPool(replicaProps)));
+            } catch (DbException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Could not open replica " + url.trim() + ": " + e.getMessage());
+            }
+        }
+        if (replicas.isEmpty()) {
+            healthChecker = null;
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = longProperty(props, "replica.healthCheckMs", 10000);
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getReadConnection() {
+        if (replicas.isEmpty() || primary.isInTransaction()
+                || System.currentTimeMillis() - lastWrite < readYourWritesMillis) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) continue;
+            try {
+                return replica.pool.getConnection();
+            } catch (DbException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    public Connection getWriteConnection() {
+        markWrite();
+        return primary.getConnection();
+    }
+
+    public void markWrite() {
+        lastWrite = System.currentTimeMillis();
+    }
+
+    public ConnectionPool getPrimary() {
+        return primary;
+    }
+
+    public int getHealthyReplicaCount() {
+        int count = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) count++;
+        }
+        return count;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public void close() {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        for (Replica replica : replicas) replica.pool.close();
+    }
+
+    private void checkHealth() {
+        for (Replica replica : replicas) {
+            Connection conn = null;
+            try {
+                conn = replica.pool.getConnection();
+                if (!conn.isValid(validationTimeoutSeconds)) {
+                    markDown(replica, "validation failed");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    LOGGER.log(System.Logger.Level.INFO, "Replica " + replica.url + " is back online.");
+                }
+            } catch (SQLException | DbException e) {
+                markDown(replica, e.getMessage());
+            } finally {
+                try {
+                    DB.closeConnection(conn);
+                } catch (DbException e) {
+                    // a broken connection is discarded by the pool
+                }
+            }
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.log(System.Logger.Level.WARNING, "Replica " + replica.url + " marked down: " + reason);
+        }
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Property '" + key + "' must be an integer: " + value);
+        }
+    }
+
+    private static class Replica {
+
+        private final String url;
+        private final ConnectionPool pool;
+        private volatile boolean healthy = true;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+class StatementCache {
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) return false;
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(Connection physical, Method method, Object[] args) throws Throwable {
+        if (maxSize <= 0) return (PreparedStatement) invoke(method, physical, args);
+        String key = keyOf(args);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            return cached.checkOut();
+        }
+        misses.increment();
+        PreparedStatement st = (PreparedStatement) invoke(method, physical, args);
+        if (cached != null) return st;
+        cached = new CachedStatement(st);
+        statements.put(key, cached);
+        return cached.checkOut();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private static String keyOf(Object[] args) {
+        if (args.length == 1) return (String) args[0];
+        StringBuilder sb = new StringBuilder((String) args[0]);
+        for (int i = 1; i < args.length; i++) {
+            sb.append('\u0000');
+            Object arg = args[i];
+            if (arg instanceof int[]) sb.append(Arrays.toString((int[]) arg));
+            else if (arg instanceof Object[]) sb.append(Arrays.toString((Object[]) arg));
+            else sb.append(arg);
+        }
+        return sb.toString();
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class CachedStatement {
+
+        private final PreparedStatement physical;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement checkOut() {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, new Handle());
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) closeQuietly();
+        }
+
+        private void checkIn() {
+            inUse = false;
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            try {
+                physical.clearParameters();
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // the connection is probably gone, the statement goes with it
+            }
+        }
+
+        private class Handle implements InvocationHandler {
+
+            private boolean closed = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!closed) {
+                            closed = true;
+                            checkIn();
+                        }
+                        return null;
+                    case "isClosed":
+                        return closed || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Cached" + physical;
+                    default:
+                        if (closed) throw new SQLException("Statement was already closed.");
+                        return StatementCache.invoke(method, physical, args);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+-- Schema for the embedded H2 backend (MODE=MySQL), kept in step with sql/migrations.
+CREATE TABLE IF NOT EXISTS department (
+  Id INT NOT NULL AUTO_INCREMENT,
+  Name VARCHAR(60) DEFAULT NULL,
+  Version INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_department_name ON department (Name);
+
+CREATE TABLE IF NOT EXISTS seller (
+  Id INT NOT NULL AUTO_INCREMENT,
+  Name VARCHAR(70) NOT NULL,
+  Email VARCHAR(40) NOT NULL,
+  BirthDate DATETIME NOT NULL,
+  BaseSalary DOUBLE NOT NULL,
+  DepartmentId INT NOT NULL,
+  Version INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (Id),
+  FOREIGN KEY (DepartmentId) REFERENCES department (Id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_seller_name ON seller (Name, Id);
+
+CREATE TABLE IF NOT EXISTS change_log (
+  Id BIGINT NOT NULL AUTO_INCREMENT,
+  EntityType VARCHAR(20) NOT NULL,
+  EntityId INT NOT NULL,
+  ChangeType VARCHAR(10) NOT NULL,
+  Origin CHAR(36) NOT NULL,
+  CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (Id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_change_log_created ON change_log (CreatedAt);
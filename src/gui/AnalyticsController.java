@@ -0,0 +1,138 @@
+package gui;
+
+import gui.util.Alerts;
+import gui.util.Utils;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import model.dao.DepartmentStats;
+import model.services.SellerAnalytics;
+import model.services.SellerAnalyticsService;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class AnalyticsController implements Initializable {
+
+    private static final int BIRTH_YEAR_BUCKET = 5;
+
+    private SellerAnalyticsService analyticsService;
+    private CompletableFuture<SellerAnalytics> pendingTask;
+
+    @FXML
+    private Button btRefresh;
+    @FXML
+    private ProgressIndicator progressIndicator;
+    @FXML
+    private Label labelSummary;
+    @FXML
+    private TableView<DepartmentStats> tableViewDepartments;
+    @FXML
+    private TableColumn<DepartmentStats, String> tableColumnDepartment;
+    @FXML
+    private TableColumn<DepartmentStats, Integer> tableColumnSellers;
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnTotal;
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnAverage;
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnMin;
+    @FXML
+    private TableColumn<DepartmentStats, Double> tableColumnMax;
+    @FXML
+    private BarChart<String, Number> chartDepartments;
+    @FXML
+    private BarChart<String, Number> chartBirthYears;
+
+    public void setAnalyticsService(SellerAnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    @FXML
+    public void btRefreshAction() {
+        SellerAnalyticsService.invalidate();
+        updateView();
+    }
+
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        bind(tableColumnDepartment, DepartmentStats::getDepartmentName);
+        bind(tableColumnSellers, DepartmentStats::getSellers);
+        bind(tableColumnTotal, DepartmentStats::getTotalSalary);
+        bind(tableColumnAverage, DepartmentStats::getAverageSalary);
+        bind(tableColumnMin, DepartmentStats::getMinSalary);
+        bind(tableColumnMax, DepartmentStats::getMaxSalary);
+        Utils.formatTableColumnDouble(tableColumnTotal, 2);
+        Utils.formatTableColumnDouble(tableColumnAverage, 2);
+        Utils.formatTableColumnDouble(tableColumnMin, 2);
+        Utils.formatTableColumnDouble(tableColumnMax, 2);
+    }
+
+    private static <T> void bind(TableColumn<DepartmentStats, T> column, Function<DepartmentStats, T> getter) {
+        column.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(getter.apply(param.getValue())));
+    }
+
+    public void updateView() {
+        if (analyticsService == null) throw new IllegalStateException("The service was null.");
+        if (pendingTask != null) pendingTask.cancel(true);
+        CompletableFuture<SellerAnalytics> future = analyticsService.getAnalyticsAsync();
+        pendingTask = future;
+        progressIndicator.setVisible(true);
+        btRefresh.setDisable(true);
+        Utils.onFxThread(future, analytics -> {
+            finish(future);
+            showAnalytics(analytics);
+        }, e -> {
+            finish(future);
+            Alerts.showAlert("Error loading analytics", null, e.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+
+    private void finish(CompletableFuture<SellerAnalytics> future) {
+        if (pendingTask != future) return;
+        pendingTask = null;
+        progressIndicator.setVisible(false);
+        btRefresh.setDisable(false);
+    }
+
+    private void showAnalytics(SellerAnalytics analytics) {
+        tableViewDepartments.setItems(FXCollections.observableArrayList(analytics.getDepartmentStats()));
+
+        XYChart.Series<String, Number> departments = new XYChart.Series<>();
+        for (DepartmentStats stats : analytics.getDepartmentStats()) {
+            departments.getData().add(new XYChart.Data<>(stats.getDepartmentName(), stats.getSellers()));
+        }
+        chartDepartments.getData().setAll(List.of(departments));
+
+        SortedMap<Integer, Integer> buckets = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> entry : analytics.getBirthYears().entrySet()) {
+            buckets.merge(Math.floorDiv(entry.getKey(), BIRTH_YEAR_BUCKET) * BIRTH_YEAR_BUCKET, entry.getValue(), Integer::sum);
+        }
+        XYChart.Series<String, Number> birthYears = new XYChart.Series<>();
+        for (Map.Entry<Integer, Integer> entry : buckets.entrySet()) {
+            String label = String.format("%d-%02d", entry.getKey(), (entry.getKey() + BIRTH_YEAR_BUCKET - 1) % 100);
+            birthYears.getData().add(new XYChart.Data<>(label, entry.getValue()));
+        }
+        chartBirthYears.getData().setAll(List.of(birthYears));
+
+        StringBuilder summary = new StringBuilder(String.format("%d sellers, payroll %.2f | salary",
+                analytics.getTotalSellers(), analytics.getTotalSalary()));
+        double[] percentiles = analytics.getPercentiles();
+        double[] salaries = analytics.getSalaryPercentiles();
+        for (int i = 0; i < percentiles.length; i++) {
+            summary.append(String.format(" p%d %s", Math.round(percentiles[i] * 100),
+                    Double.isNaN(salaries[i]) ? "-" : String.format("%.2f", salaries[i])));
+        }
+        labelSummary.setText(summary.toString());
+    }
+}
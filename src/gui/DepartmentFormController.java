@@ -1,6 +1,7 @@
 package gui;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
@@ -12,6 +13,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
@@ -22,8 +24,9 @@ import java.util.*;
 public class DepartmentFormController implements Initializable {
 
     private Department entity;
+    private Integer version;
     private DepartmentService departmentService;
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+    private List<DataChangeListener<Department>> dataChangeListeners = new ArrayList<>();
 
     @FXML
     private TextField txtId;
@@ -39,35 +42,52 @@ public class DepartmentFormController implements Initializable {
 
     public void setDepartment(Department entity) {
         this.entity = entity;
+        this.version = entity == null ? null : entity.getVersion();
     }
 
     public void setDepartmentService(DepartmentService departmentService) {
         this.departmentService = departmentService;
     }
 
-    public void subscribeDataChangeListener(DataChangeListener listener) {
+    public void subscribeDataChangeListener(DataChangeListener<Department> listener) {
         dataChangeListeners.add(listener);
     }
 
+    public void reset() {
+        dataChangeListeners.clear();
+        labelErrorName.setText("");
+        btSave.setDisable(false);
+    }
+
     @FXML
     public void onBtSaveAction(ActionEvent event) {
         if (departmentService == null) throw new IllegalStateException("DepartmentService are not was injected.");
         if (entity == null) throw new IllegalStateException("Entity are not was injected.");
         try {
             entity = getFormData();
-            departmentService.saveOrUpdate(entity);
-            notifyDataChangeListeners();
-            Utils.currentStage(event).close();
+            DataChangeEvent.Type type = entity.getId() == null ? DataChangeEvent.Type.INSERTED : DataChangeEvent.Type.UPDATED;
+            Stage stage = Utils.currentStage(event);
+            btSave.setDisable(true);
+            Utils.onFxThread(departmentService.saveOrUpdateAsync(entity), x -> {
+                notifyDataChangeListeners(new DataChangeEvent<>(type, entity, entity.getId()));
+                stage.close();
+            }, e -> {
+                btSave.setDisable(false);
+                if (e instanceof DbConcurrencyException) {
+                    Alerts.showAlert("Edit conflict", null, "This department was changed or removed by another user. "
+                            + "Close the form and open it again to edit the latest data.", Alert.AlertType.WARNING);
+                } else {
+                    Alerts.showAlert("Error saving Object", null, e.getMessage(), Alert.AlertType.ERROR);
+                }
+            });
         } catch (ValidationException e) {
             setErrorMessages(e.getErrors());
-        } catch (DbException e) {
-            Alerts.showAlert("Error saving Object", null, e.getMessage(), Alert.AlertType.ERROR);
         }
     }
 
-    private void notifyDataChangeListeners() {
-        for (DataChangeListener listener : dataChangeListeners) {
-            listener.onDataChanged();
+    private void notifyDataChangeListeners(DataChangeEvent<Department> event) {
+        for (DataChangeListener<Department> listener : dataChangeListeners) {
+            listener.onDataChanged(event);
         }
     }
 
@@ -75,6 +95,7 @@ public class DepartmentFormController implements Initializable {
         Department department = new Department();
         ValidationException exception = new ValidationException("Validation error.");
         department.setId(Utils.tryParseToInteger(txtId.getText()));
+        department.setVersion(version);
         if (txtName == null || txtName.getText().trim().equals("")) exception.addError("name", "Field can`n be empty.");
         department.setName(txtName.getText());
         if (exception.getErrors().size() > 0) throw exception;
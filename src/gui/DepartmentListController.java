@@ -1,33 +1,46 @@
 package gui;
 
 import application.Program;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Utils;
+import gui.util.ViewRegistry;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import model.dao.ChangeRecord;
 import model.entities.Department;
+import model.services.ChangeFeed;
 import model.services.DepartmentService;
+import model.services.ServiceFactory;
+import model.services.TableExporter;
 
-import java.io.IOException;
+import java.io.File;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class DepartmentListController implements Initializable, DataChangeListener {
+public class DepartmentListController implements Initializable, DataChangeListener<Department> {
+
+    private static final Comparator<Department> BY_NAME =
+            Comparator.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Department::getId);
 
     private DepartmentService departmentService;
 
@@ -44,7 +57,15 @@ public class DepartmentListController implements Initializable, DataChangeListen
 
     @FXML
     private Button btNew;
+    @FXML
+    private Button btExport;
+    @FXML
+    private Button btCancel;
+    @FXML
+    private ProgressIndicator progressIndicator;
     private ObservableList<Department> observableList;
+    private final Map<Integer, Integer> indexById = new HashMap<>();
+    private CompletableFuture<?> pendingTask;
 
     @FXML
     public void btNewAction(ActionEvent event) {
@@ -53,6 +74,35 @@ public class DepartmentListController implements Initializable, DataChangeListen
         createDialogForm(obj, "/gui/DepartmentForm.fxml", parentStage);
     }
 
+    @FXML
+    public void btExportAction(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export departments");
+        chooser.setInitialFileName("departments.csv");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON files", "*.json"));
+        File file = chooser.showSaveDialog(Utils.currentStage(event));
+        if (file == null) return;
+
+        TableExporter exporter = new TableExporter();
+        CompletableFuture<Long> future = exporter.exportDepartmentsAsync(departmentService, file.toPath());
+        future.whenComplete((count, error) -> {
+            if (future.isCancelled()) exporter.cancel();
+        });
+        btExport.setDisable(true);
+        future.whenCompleteAsync((count, error) -> btExport.setDisable(false), Platform::runLater);
+        trackProgress(future);
+        Utils.onFxThread(future,
+                count -> Alerts.showAlert("Export finished", null, count + " rows written to " + file, Alert.AlertType.INFORMATION),
+                e -> Alerts.showAlert("Error exporting departments", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    @FXML
+    public void btCancelAction() {
+        if (pendingTask != null) pendingTask.cancel(true);
+    }
+
     public void setDepartmentService(DepartmentService service) {
         this.departmentService = service;
     }
@@ -60,51 +110,109 @@ public class DepartmentListController implements Initializable, DataChangeListen
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         initializeNodes();
+        ChangeFeed.subscribe(ChangeRecord.DEPARTMENT, changes -> Platform.runLater(() -> onRemoteChanges(changes)));
     }
 
     private void initializeNodes() {
         tableColumnId.setCellValueFactory(new PropertyValueFactory<>("Id"));
         tableColumnName.setCellValueFactory(new PropertyValueFactory<>("Name"));
         Stage stage = (Stage) Program.getMainStage().getWindow();
-        tableViewDepartments.prefHeightProperty().bind(stage.heightProperty());
+        Platform.runLater(() -> tableViewDepartments.prefHeightProperty().bind(stage.heightProperty()));
+        initEditButtons();
+        initRemoveButtons();
     }
 
     public void updateTableView() {
         if (departmentService == null) throw new IllegalStateException("The service was null.");
-        List<Department> list = departmentService.findAll();
-        observableList = FXCollections.observableArrayList(list);
-        tableViewDepartments.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
+        if (pendingTask != null) pendingTask.cancel(true);
+        CompletableFuture<List<Department>> future = departmentService.findAllAsync();
+        trackProgress(future);
+        Utils.onFxThread(future, list -> {
+            observableList = FXCollections.observableArrayList(list);
+            indexById.clear();
+            reindex(0);
+            tableViewDepartments.setItems(observableList);
+        }, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private void trackProgress(CompletableFuture<?> future) {
+        pendingTask = future;
+        progressIndicator.setVisible(true);
+        btCancel.setVisible(true);
+        future.whenCompleteAsync((result, error) -> {
+            if (pendingTask != future) return;
+            pendingTask = null;
+            progressIndicator.setVisible(false);
+            btCancel.setVisible(false);
+        }, Platform::runLater);
     }
 
     private void createDialogForm(Department obj, String absoluteName, Stage parentStage) {
+        long start = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-            Pane pane = loader.load();
+            ViewRegistry.View<DepartmentFormController> view = ViewRegistry.get(absoluteName);
 
-            DepartmentFormController controller = loader.getController();
+            DepartmentFormController controller = view.getController();
+            controller.reset();
             controller.setDepartment(obj);
-            controller.setDepartmentService(new DepartmentService());
+            controller.setDepartmentService(ServiceFactory.getDepartmentService());
             controller.subscribeDataChangeListener(this);
             controller.updateFormData();
 
-
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Enter department data");
-            dialogStage.setScene(new Scene(pane));
-            dialogStage.setResizable(false);
-            dialogStage.initOwner(parentStage);
-            dialogStage.initModality(Modality.WINDOW_MODAL);/*Modality.WINDOW_MODAL (Responsible for block interaction with other windows. )*/
+            Stage dialogStage = view.getDialogStage("Enter department data", parentStage);
+            dialogStage.setOnShown(event -> ViewRegistry.logElapsed("Time to dialog " + absoluteName, start));
             dialogStage.showAndWait();
-        } catch (IOException e) {
-            Alerts.showAlert("IOException", "Error loading view", e.getMessage(), Alert.AlertType.ERROR);
+        } catch (UncheckedIOException e) {
+            Alerts.showAlert("IOException", "Error loading view", e.getCause().getMessage(), Alert.AlertType.ERROR);
         }
     }
 
     @Override
-    public void onDataChanged() {
-        updateTableView();
+    public void onDataChanged(DataChangeEvent<Department> event) {
+        if (observableList == null) {
+            updateTableView();
+            return;
+        }
+        Integer index = indexById.get(event.getId());
+        if (event.getType() == DataChangeEvent.Type.UPDATED && index != null && fitsAt(index, event.getEntity())) {
+            observableList.set(index, event.getEntity());
+            return;
+        }
+        if (index != null) {
+            observableList.remove((int) index);
+            indexById.remove(event.getId());
+            reindex(index);
+        }
+        if (event.getType() == DataChangeEvent.Type.DELETED) return;
+
+        int position = Collections.binarySearch(observableList, event.getEntity(), BY_NAME);
+        position = position < 0 ? -position - 1 : position;
+        observableList.add(position, event.getEntity());
+        reindex(position);
+    }
+
+    private boolean fitsAt(int index, Department department) {
+        return (index == 0 || BY_NAME.compare(observableList.get(index - 1), department) <= 0)
+                && (index == observableList.size() - 1 || BY_NAME.compare(department, observableList.get(index + 1)) <= 0);
+    }
+
+    private void reindex(int from) {
+        for (int i = from; i < observableList.size(); i++) indexById.put(observableList.get(i).getId(), i);
+    }
+
+    private void onRemoteChanges(List<ChangeRecord> changes) {
+        if (observableList == null || tableViewDepartments.getScene() == null) return;
+        Utils.onFxThread(departmentService.findAllAsync(), list -> {
+            for (ChangeRecord change : changes) {
+                Department department = null;
+                for (Department dep : list) {
+                    if (dep.getId() == change.getEntityId()) department = dep;
+                }
+                DataChangeEvent.Type type = department == null
+                        ? DataChangeEvent.Type.DELETED : DataChangeEvent.Type.valueOf(change.getType().name());
+                onDataChanged(new DataChangeEvent<>(type, department, change.getEntityId()));
+            }
+        }, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), Alert.AlertType.ERROR));
     }
 
     private void initEditButtons() {
@@ -146,13 +254,49 @@ public class DepartmentListController implements Initializable, DataChangeListen
     }
 
     private void removeEntity(Department obj) {
-        Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Are you ensure to delete?");
         if (departmentService == null) throw new IllegalStateException("DepartmentService are not was instantiate.");
-        try {
-            if (result.get() == ButtonType.OK) departmentService.remove(obj);
-            updateTableView();
-        } catch (DbIntegrityException e) {
-            Alerts.showAlert("Error removing object", null, e.getMessage(), Alert.AlertType.ERROR);
+        CompletableFuture<Integer> count = departmentService.countSellersAsync(obj);
+        trackProgress(count);
+        Utils.onFxThread(count, sellers -> confirmRemove(obj, sellers),
+                e -> Alerts.showAlert("Error removing object", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private void confirmRemove(Department obj, int sellers) {
+        if (sellers == 0) {
+            Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Are you ensure to delete?");
+            if (result.isEmpty() || result.get() != ButtonType.OK) return;
+            remove(obj, DepartmentService.DeleteMode.RESTRICT, null);
+            return;
+        }
+        ButtonType move = new ButtonType("Move sellers");
+        ButtonType delete = new ButtonType("Delete sellers");
+        Optional<ButtonType> result = Alerts.showOptions("Confirmation",
+                obj.getName() + " has " + sellers + " sellers. Move them to another department or delete them too?",
+                move, delete, ButtonType.CANCEL);
+        if (result.isEmpty() || result.get() == ButtonType.CANCEL) return;
+        if (result.get() == delete) {
+            remove(obj, DepartmentService.DeleteMode.DELETE_SELLERS, null);
+            return;
+        }
+        List<Department> others = new ArrayList<>(observableList);
+        others.removeIf(department -> department.getId().equals(obj.getId()));
+        if (others.isEmpty()) {
+            Alerts.showAlert("Error removing object", null, "There is no other department to move the sellers to.", Alert.AlertType.ERROR);
+            return;
         }
+        ChoiceDialog<Department> dialog = new ChoiceDialog<>(null, others);
+        dialog.setTitle("Move sellers");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Move " + sellers + " sellers to:");
+        Optional<Department> target = dialog.showAndWait();
+        if (target.isEmpty() || target.get() == null) return;
+        remove(obj, DepartmentService.DeleteMode.REASSIGN_SELLERS, target.get());
+    }
+
+    private void remove(Department obj, DepartmentService.DeleteMode mode, Department target) {
+        CompletableFuture<Void> future = departmentService.removeAsync(obj, mode, target);
+        trackProgress(future);
+        Utils.onFxThread(future, x -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj, obj.getId())),
+                e -> Alerts.showAlert("Error removing object", null, e.getMessage(), Alert.AlertType.ERROR));
     }
 }
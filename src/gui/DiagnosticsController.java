@@ -0,0 +1,110 @@
+package gui;
+
+import db.ConnectionPool;
+import db.DB;
+import db.QueryMetrics;
+import db.QueryStats;
+import db.ReplicaRouter;
+import gui.util.Utils;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+import java.util.function.Function;
+
+public class DiagnosticsController implements Initializable {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    @FXML
+    private Button btRefresh;
+    @FXML
+    private Button btReset;
+    @FXML
+    private Label labelPool;
+    @FXML
+    private TableView<QueryStats> tableViewQueries;
+    @FXML
+    private TableColumn<QueryStats, String> tableColumnName;
+    @FXML
+    private TableColumn<QueryStats, Long> tableColumnCount;
+    @FXML
+    private TableColumn<QueryStats, Long> tableColumnErrors;
+    @FXML
+    private TableColumn<QueryStats, Long> tableColumnRows;
+    @FXML
+    private TableColumn<QueryStats, Double> tableColumnMean;
+    @FXML
+    private TableColumn<QueryStats, Double> tableColumnP50;
+    @FXML
+    private TableColumn<QueryStats, Double> tableColumnP95;
+    @FXML
+    private TableColumn<QueryStats, Double> tableColumnP99;
+    @FXML
+    private TableColumn<QueryStats, Double> tableColumnMax;
+    private final Timeline timeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, event -> updateView()));
+
+    @FXML
+    public void btRefreshAction() {
+        updateView();
+    }
+
+    @FXML
+    public void btResetAction() {
+        QueryMetrics.reset();
+        updateView();
+    }
+
+    @Override
+    public void initialize(URL url, ResourceBundle resourceBundle) {
+        initializeNodes();
+        timeline.setCycleCount(Animation.INDEFINITE);
+        tableViewQueries.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) timeline.stop();
+            else timeline.play();
+        });
+    }
+
+    private void initializeNodes() {
+        bind(tableColumnName, QueryStats::getName);
+        bind(tableColumnCount, QueryStats::getCount);
+        bind(tableColumnErrors, QueryStats::getErrors);
+        bind(tableColumnRows, QueryStats::getRows);
+        bind(tableColumnMean, QueryStats::getMeanMillis);
+        bind(tableColumnP50, QueryStats::getP50Millis);
+        bind(tableColumnP95, QueryStats::getP95Millis);
+        bind(tableColumnP99, QueryStats::getP99Millis);
+        bind(tableColumnMax, QueryStats::getMaxMillis);
+        Utils.formatTableColumnDouble(tableColumnMean, 2);
+        Utils.formatTableColumnDouble(tableColumnP50, 2);
+        Utils.formatTableColumnDouble(tableColumnP95, 2);
+        Utils.formatTableColumnDouble(tableColumnP99, 2);
+        Utils.formatTableColumnDouble(tableColumnMax, 2);
+    }
+
+    private static <T> void bind(TableColumn<QueryStats, T> column, Function<QueryStats, T> getter) {
+        column.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(getter.apply(param.getValue())));
+    }
+
+    public void updateView() {
+        tableViewQueries.setItems(FXCollections.observableArrayList(QueryMetrics.snapshot()));
+        ConnectionPool pool = DB.getPool();
+        ReplicaRouter router = DB.getRouter();
+        labelPool.setText(String.format("Pool: %d active, %d idle, %d max | statement cache %d hits, %d misses | "
+                        + "replicas %d/%d healthy | slow query >= %d ms",
+                pool.getActiveCount(), pool.getIdleCount(), pool.getMaxSize(),
+                pool.getStatementCacheHits(), pool.getStatementCacheMisses(),
+                router.getHealthyReplicaCount(), router.getReplicaCount(), QueryMetrics.getSlowQueryThresholdMillis()));
+    }
+}
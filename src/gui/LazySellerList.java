@@ -0,0 +1,177 @@
+package gui;
+
+import gui.util.Utils;
+import javafx.collections.ObservableListBase;
+import model.dao.SellerFilter;
+import model.entities.Seller;
+import model.services.SellerService;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class LazySellerList extends ObservableListBase<Seller> {
+
+    public static final int DEFAULT_RESIDENT_BLOCKS = 8;
+
+    private final SellerService service;
+    private final SellerFilter filter;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final Consumer<Throwable> onError;
+    private final Map<Integer, List<Seller>> blocks;
+    private final Deque<Integer> requested = new ArrayDeque<>();
+    private int size = 0;
+    private int generation = 0;
+    private boolean failed = false;
+    private CompletableFuture<List<Seller>> loading;
+
+    public LazySellerList(SellerService service, SellerFilter filter, Consumer<Throwable> onError) {
+        this(service, filter, service.getPageSize(), DEFAULT_RESIDENT_BLOCKS, onError);
+    }
+
+    public LazySellerList(SellerService service, SellerFilter filter, int blockSize, int maxBlocks, Consumer<Throwable> onError) {
+        if (blockSize < 1 || maxBlocks < 2) throw new IllegalArgumentException("Invalid block window: " + blockSize + "x" + maxBlocks + ".");
+        this.service = service;
+        this.filter = filter;
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        this.onError = onError;
+        this.blocks = new LinkedHashMap<>(maxBlocks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Seller>> eldest) {
+                return size() > LazySellerList.this.maxBlocks;
+            }
+        };
+    }
+
+    public SellerFilter getFilter() {
+        return filter;
+    }
+
+    public CompletableFuture<Integer> refresh() {
+        int current = ++generation;
+        failed = false;
+        requested.clear();
+        if (loading != null) loading.cancel(true);
+        loading = null;
+        CompletableFuture<Integer> future = service.countAsync(filter);
+        Utils.onFxThread(future, total -> {
+            if (current != generation) return;
+            blocks.clear();
+            resize(total);
+        }, onError);
+        return future;
+    }
+
+    public boolean isLoaded(Integer id) {
+        for (List<Seller> block : blocks.values()) {
+            for (Seller seller : block) {
+                if (seller.getId().equals(id)) return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean replace(Seller seller) {
+        for (Map.Entry<Integer, List<Seller>> entry : blocks.entrySet()) {
+            List<Seller> block = entry.getValue();
+            for (int i = 0; i < block.size(); i++) {
+                Seller old = block.get(i);
+                if (!old.getId().equals(seller.getId())) continue;
+                if (!filter.matches(seller) || filter.comparator().compare(old, seller) != 0) return false;
+                block.set(i, seller);
+                int index = entry.getKey() * blockSize + i;
+                beginChange();
+                nextUpdate(index);
+                endChange();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Integer peekId(int index) {
+        if (index < 0 || index >= size) return null;
+        List<Seller> block = blocks.get(index / blockSize);
+        int offset = index % blockSize;
+        return block == null || offset >= block.size() ? null : block.get(offset).getId();
+    }
+
+    @Override
+    public Seller get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int blockIndex = index / blockSize;
+        List<Seller> block = blocks.get(blockIndex);
+        if (block == null) {
+            request(blockIndex);
+            return null;
+        }
+        int offset = index % blockSize;
+        return offset < block.size() ? block.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void request(int blockIndex) {
+        if (failed) return;
+        requested.remove(blockIndex);
+        requested.addLast(blockIndex);
+        if (requested.size() > maxBlocks) requested.removeFirst();
+        loadNext();
+    }
+
+    private void loadNext() {
+        if (loading != null) return;
+        Integer blockIndex = requested.pollLast();
+        while (blockIndex != null && blocks.containsKey(blockIndex)) blockIndex = requested.pollLast();
+        if (blockIndex == null) return;
+
+        int current = generation;
+        int index = blockIndex;
+        List<Seller> previous = blocks.get(index - 1);
+        boolean keyset = previous != null && previous.size() == blockSize && blockSize == service.getPageSize();
+        CompletableFuture<List<Seller>> future = keyset
+                ? service.findPageAsync(filter, previous.get(blockSize - 1))
+                : service.findRangeAsync(filter, index * blockSize, blockSize);
+        loading = future;
+        Utils.onFxThread(future, rows -> {
+            if (loading == future) loading = null;
+            if (current == generation) store(index, rows);
+            loadNext();
+        }, e -> {
+            if (loading == future) loading = null;
+            if (current != generation) return;
+            failed = true;
+            requested.clear();
+            onError.accept(e);
+        });
+    }
+
+    private void store(int blockIndex, List<Seller> rows) {
+        blocks.put(blockIndex, rows);
+        int from = blockIndex * blockSize;
+        int to = Math.min(size, from + blockSize);
+        if (from >= to) return;
+        beginChange();
+        for (int i = from; i < to; i++) nextUpdate(i);
+        endChange();
+    }
+
+    private void resize(int total) {
+        int old = size;
+        size = total;
+        if (old == 0 && total == 0) return;
+        beginChange();
+        nextReplace(0, total, Collections.nCopies(old, null));
+        endChange();
+    }
+}
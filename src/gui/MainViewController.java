@@ -2,8 +2,8 @@ package gui;
 
 import application.Program;
 import gui.util.Alerts;
+import gui.util.ViewRegistry;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -11,10 +11,9 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
-import model.services.DepartmentService;
-import model.services.SellerService;
+import model.services.ServiceFactory;
 
-import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
@@ -26,12 +25,16 @@ public class MainViewController implements Initializable {
     @FXML
     private MenuItem menuItemDepartment;
     @FXML
+    private MenuItem menuItemAnalytics;
+    @FXML
+    private MenuItem menuItemDiagnostics;
+    @FXML
     private MenuItem menuItemAbout;
 
     @FXML
     public void onMenuItemSellerAction() {
         loadView("/gui/SellerList.fxml", (SellerListController controller) -> {
-            controller.setSellerService(new SellerService());
+            controller.setSellerService(ServiceFactory.getSellerService());
             controller.updateTableView();
         });
     }
@@ -39,11 +42,24 @@ public class MainViewController implements Initializable {
     @FXML
     public void onMenuItemDepartmentAction() {
         loadView("/gui/DepartmentList.fxml", (DepartmentListController controller) -> {
-            controller.setDepartmentService(new DepartmentService());
+            controller.setDepartmentService(ServiceFactory.getDepartmentService());
             controller.updateTableView();
         });
     }
 
+    @FXML
+    public void onMenuItemAnalyticsAction() {
+        loadView("/gui/Analytics.fxml", (AnalyticsController controller) -> {
+            controller.setAnalyticsService(ServiceFactory.getSellerAnalyticsService());
+            controller.updateView();
+        });
+    }
+
+    @FXML
+    public void onMenuItemDiagnosticsAction() {
+        loadView("/gui/Diagnostics.fxml", DiagnosticsController::updateView);
+    }
+
     @FXML
     public void onMenuItemAboutAction() {
         loadView("/gui/About.fxml", x -> {
@@ -55,9 +71,9 @@ public class MainViewController implements Initializable {
     }
 
     private synchronized <T> void loadView(String absoluteName, Consumer<T> initializingAction) {
+        long start = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-            VBox vBox = loader.load();
+            ViewRegistry.View<T> view = ViewRegistry.get(absoluteName);
 
             Scene mainScene = Program.getMainStage();
             VBox mainVbox = (VBox) ((ScrollPane) mainScene.getRoot()).getContent();
@@ -65,12 +81,12 @@ public class MainViewController implements Initializable {
             Node mainMenu = mainVbox.getChildren().get(0);
             mainVbox.getChildren().clear();
             mainVbox.getChildren().add(mainMenu);
-            mainVbox.getChildren().addAll(vBox.getChildren());
+            mainVbox.getChildren().addAll(view.getContent());
 
-            T controller = loader.getController();
-            initializingAction.accept(controller);
-        } catch (IOException e) {
-            Alerts.showAlert("IOException", "Error to load vBox", e.getMessage(), Alert.AlertType.ERROR);
+            initializingAction.accept(view.getController());
+            ViewRegistry.logElapsed("Time to view " + absoluteName, start);
+        } catch (UncheckedIOException e) {
+            Alerts.showAlert("IOException", "Error to load vBox", e.getCause().getMessage(), Alert.AlertType.ERROR);
         }
     }
 }
@@ -1,17 +1,22 @@
 package gui;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
 import gui.util.Constraints;
 import gui.util.Utils;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.stage.Stage;
 import javafx.util.Callback;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
@@ -23,13 +28,16 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class SellerFormController implements Initializable {
 
+    private static final Duration DEPARTMENT_SEARCH_DELAY = Duration.millis(250);
+
     private Seller entity;
     private SellerService sellerService;
     private DepartmentService departmentService;
-    private List<DataChangeListener> dataChangeListeners = new ArrayList<>();
+    private List<DataChangeListener<Seller>> dataChangeListeners = new ArrayList<>();
 
     @FXML
     private TextField txtId;
@@ -51,13 +59,18 @@ public class SellerFormController implements Initializable {
     private Label labelErrorBirthDate;
     @FXML
     private Label labelErrorBaseSalary;
+    @FXML
+    private Label labelErrorDepartment;
 
     @FXML
     private Button btSave;
     @FXML
     private Button btCancel;
 
-    private ObservableList<Department> observableList;
+    private ObservableList<Department> observableList = FXCollections.observableArrayList();
+    private final PauseTransition departmentSearch = new PauseTransition(DEPARTMENT_SEARCH_DELAY);
+    private CompletableFuture<List<Department>> pendingDepartments;
+    private boolean updatingEditor;
 
     public void setSeller(Seller entity) {
         this.entity = entity;
@@ -68,53 +81,107 @@ public class SellerFormController implements Initializable {
         this.departmentService = departmentService;
     }
 
-    public void subscribeDataChangeListener(DataChangeListener listener) {
+    public void subscribeDataChangeListener(DataChangeListener<Seller> listener) {
         dataChangeListeners.add(listener);
     }
 
+    public void reset() {
+        departmentSearch.stop();
+        if (pendingDepartments != null) pendingDepartments.cancel(true);
+        pendingDepartments = null;
+        updatingEditor = true;
+        comboBoxDepartment.hide();
+        comboBoxDepartment.setValue(null);
+        observableList.clear();
+        comboBoxDepartment.getEditor().clear();
+        updatingEditor = false;
+        dataChangeListeners.clear();
+        setErrorMessages(Collections.emptyMap());
+        btSave.setDisable(false);
+    }
+
     @FXML
     public void onBtSaveAction(ActionEvent event) {
         if (sellerService == null) throw new IllegalStateException("SellerService are not was injected.");
         if (entity == null) throw new IllegalStateException("Entity are not was injected.");
         try {
             entity = getFormData();
-            sellerService.saveOrUpdate(entity);
-            notifyDataChangeListeners();
-            Utils.currentStage(event).close();
+            DataChangeEvent.Type type = entity.getId() == null ? DataChangeEvent.Type.INSERTED : DataChangeEvent.Type.UPDATED;
+            Stage stage = Utils.currentStage(event);
+            btSave.setDisable(true);
+            Utils.onFxThread(sellerService.saveOrUpdateAsync(entity), x -> {
+                notifyDataChangeListeners(new DataChangeEvent<>(type, entity, entity.getId()));
+                stage.close();
+            }, e -> {
+                btSave.setDisable(false);
+                if (e instanceof DbConcurrencyException) onConcurrentChange();
+                else Alerts.showAlert("Error saving Object", null, e.getMessage(), Alert.AlertType.ERROR);
+            });
         } catch (ValidationException e) {
             setErrorMessages(e.getErrors());
-        } catch (DbException e) {
-            Alerts.showAlert("Error saving Object", null, e.getMessage(), Alert.AlertType.ERROR);
         }
     }
 
-    private void notifyDataChangeListeners() {
-        for (DataChangeListener listener : dataChangeListeners) {
-            listener.onDataChanged();
+    private void onConcurrentChange() {
+        Optional<ButtonType> result = Alerts.showConfirmation("Edit conflict",
+                "This seller was changed by another user after you opened it. "
+                        + "Load the latest data? Your changes will be discarded.");
+        if (result.isEmpty() || result.get() != ButtonType.OK) return;
+        Integer id = entity.getId();
+        btSave.setDisable(true);
+        Utils.onFxThread(sellerService.findByIdAsync(id), latest -> {
+            btSave.setDisable(false);
+            if (latest == null) {
+                Alerts.showAlert("Edit conflict", null, "This seller was removed by another user.", Alert.AlertType.WARNING);
+                notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, entity, id));
+                ((Stage) btSave.getScene().getWindow()).close();
+                return;
+            }
+            entity = latest;
+            updateFormData();
+            setErrorMessages(Collections.emptyMap());
+            notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.UPDATED, latest, id));
+        }, e -> {
+            btSave.setDisable(false);
+            Alerts.showAlert("Error loading seller", null, e.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+
+    private void notifyDataChangeListeners(DataChangeEvent<Seller> event) {
+        for (DataChangeListener<Seller> listener : dataChangeListeners) {
+            listener.onDataChanged(event);
         }
     }
 
     private Seller getFormData() {
         Seller seller = new Seller();
-        ValidationException exception = new ValidationException("Validation error.");
         seller.setId(Utils.tryParseToInteger(txtId.getText()));
-        if (txtName == null || txtName.getText().trim().equals("")) exception.addError("name", "Field can`n be empty.");
+        seller.setVersion(entity.getVersion());
         seller.setName(txtName.getText());
-        if (txtEmail == null || txtEmail.getText().trim().equals("")) exception.addError("email", "Field can`n be empty.");
         seller.setEmail(txtEmail.getText());
 
-        if (dpBirthDate.getValue() == null) exception.addError("birthDate", "Field can`n be empty.");
-        else {
+        if (dpBirthDate.getValue() != null) {
             Instant instant = Instant.from(dpBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
             seller.setBirthDate(Date.from(instant));
         }
 
-        if (txtBaseSalary == null || txtBaseSalary.getText().trim().equals("")) exception.addError("baseSalary", "Field can`n be empty.");
         seller.setBaseSalary(Utils.tryParseToDouble(txtBaseSalary.getText()));
+        String departmentName = comboBoxDepartment.getEditor().getText();
+        seller.setDepartment(findDepartment(departmentName));
 
-        seller.setDepartment(comboBoxDepartment.getValue());
-
-        if (exception.getErrors().size() > 0) throw exception;
+        String departmentError = seller.getDepartment() == null && countDepartmentsNamed(departmentName) > 1
+                ? "More than one department is named \"" + departmentName.trim() + "\". Pick one from the list." : null;
+        try {
+            SellerService.validate(seller);
+        } catch (ValidationException e) {
+            if (departmentError != null) e.addError("department", departmentError);
+            throw e;
+        }
+        if (departmentError != null) {
+            ValidationException exception = new ValidationException("Validation error.");
+            exception.addError("department", departmentError);
+            throw exception;
+        }
         return seller;
     }
 
@@ -130,9 +197,9 @@ public class SellerFormController implements Initializable {
 
     private void initializeNodes() {
         Constraints.setTextFieldInteger(txtId);
-        Constraints.setTextFieldMaxLength(txtName, 70);
+        Constraints.setTextFieldMaxLength(txtName, SellerService.NAME_MAX_LENGTH);
         Constraints.setTextFieldDouble(txtBaseSalary);
-        Constraints.setTextFieldMaxLength(txtEmail, 40);
+        Constraints.setTextFieldMaxLength(txtEmail, SellerService.EMAIL_MAX_LENGTH);
         Utils.formatDatePicker(dpBirthDate, "dd/MM/yyyy");
         initializeComboBoxDepartment();
     }
@@ -144,17 +211,55 @@ public class SellerFormController implements Initializable {
         txtEmail.setText(entity.getEmail());
         Locale.setDefault(Locale.US);
         txtBaseSalary.setText(String.format("%.2f", entity.getBaseSalary()));
-        if (entity.getBirthDate() != null)
-            dpBirthDate.setValue(LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
+        dpBirthDate.setValue(entity.getBirthDate() == null ? null
+                : LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
+        comboBoxDepartment.setValue(entity.getDepartment());
         if (entity.getDepartment() == null) comboBoxDepartment.getSelectionModel().selectFirst();
-        else comboBoxDepartment.setValue(entity.getDepartment());
     }
 
     public void loadAssociatedObjects() {
         if (departmentService == null) throw new IllegalStateException("Department Service was null.");
-        List<Department> list = departmentService.findAll();
-        observableList = FXCollections.observableArrayList(list);
-        comboBoxDepartment.setItems(observableList);
+        loadDepartments("", false);
+    }
+
+    private void loadDepartments(String prefix, boolean showPopup) {
+        if (pendingDepartments != null) pendingDepartments.cancel(true);
+        CompletableFuture<List<Department>> future = departmentService.findByNamePrefixAsync(prefix);
+        pendingDepartments = future;
+        Utils.onFxThread(future, list -> {
+            if (pendingDepartments != future) return;
+            pendingDepartments = null;
+            String text = comboBoxDepartment.getEditor().getText();
+            updatingEditor = true;
+            observableList.setAll(list);
+            comboBoxDepartment.getEditor().setText(text);
+            comboBoxDepartment.getEditor().positionCaret(text == null ? 0 : text.length());
+            updatingEditor = false;
+            if (!showPopup && comboBoxDepartment.getValue() == null) comboBoxDepartment.getSelectionModel().selectFirst();
+            if (showPopup && !list.isEmpty()) comboBoxDepartment.show();
+        }, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private Department findDepartment(String name) {
+        if (name == null || name.isBlank()) return null;
+        Department current = comboBoxDepartment.getValue();
+        if (current != null && current.getName().equalsIgnoreCase(name.trim())) return current;
+        Department found = null;
+        for (Department department : observableList) {
+            if (!department.getName().equalsIgnoreCase(name.trim())) continue;
+            if (found != null) return null;
+            found = department;
+        }
+        return found;
+    }
+
+    private int countDepartmentsNamed(String name) {
+        if (name == null || name.isBlank()) return 0;
+        int count = 0;
+        for (Department department : observableList) {
+            if (department.getName().equalsIgnoreCase(name.trim())) count++;
+        }
+        return count;
     }
 
     private void setErrorMessages(Map<String, String> errors) {
@@ -163,6 +268,7 @@ public class SellerFormController implements Initializable {
         labelErrorEmail.setText(fields.contains("email") ? errors.get("email") : "");
         labelErrorBaseSalary.setText((fields.contains("baseSalary")) ? errors.get("baseSalary") : "");
         labelErrorBirthDate.setText(fields.contains("birthDate") ? errors.get("birthDate") : "");
+        labelErrorDepartment.setText(fields.contains("department") ? errors.get("department") : "");
     }
 
     private void initializeComboBoxDepartment() {
@@ -170,10 +276,27 @@ public class SellerFormController implements Initializable {
             @Override
             protected void updateItem(Department item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? "" : item.getName());
+                setText(empty ? "" : item.getName() + "  #" + item.getId());
             }
         };
         comboBoxDepartment.setCellFactory(factory);
-        comboBoxDepartment.setButtonCell(factory.call(null));
+        comboBoxDepartment.setItems(observableList);
+        comboBoxDepartment.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Department department) {
+                return department == null ? "" : department.getName();
+            }
+
+            @Override
+            public Department fromString(String name) {
+                return findDepartment(name);
+            }
+        });
+        comboBoxDepartment.getEditor().textProperty().addListener((obs, oldValue, newValue) -> {
+            if (updatingEditor || departmentService == null) return;
+            if (newValue != null && newValue.equals(comboBoxDepartment.getConverter().toString(comboBoxDepartment.getValue()))) return;
+            departmentSearch.playFromStart();
+        });
+        departmentSearch.setOnFinished(event -> loadDepartments(comboBoxDepartment.getEditor().getText(), true));
     }
 }
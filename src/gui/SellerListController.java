@@ -1,35 +1,51 @@
 package gui;
 
 import application.Program;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Constraints;
 import gui.util.Utils;
+import gui.util.ViewRegistry;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Side;
 import javafx.fxml.Initializable;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.layout.Pane;
-import javafx.stage.Modality;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import model.dao.ChangeRecord;
+import model.dao.SellerFilter;
+import model.entities.Department;
 import model.entities.Seller;
-import model.services.DepartmentService;
+import model.services.ChangeFeed;
+import model.services.ImportReport;
+import model.services.SellerCsvImporter;
+import model.services.SellerSearchIndex;
 import model.services.SellerService;
+import model.services.ServiceFactory;
+import model.services.TableExporter;
 
-import java.io.IOException;
+import java.io.File;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class SellerListController implements Initializable, DataChangeListener {
+public class SellerListController implements Initializable, DataChangeListener<Seller> {
 
     private SellerService departmentService;
 
@@ -52,7 +68,45 @@ public class SellerListController implements Initializable, DataChangeListener {
 
     @FXML
     private Button btNew;
-    private ObservableList<Seller> observableList;
+    @FXML
+    private Button btImport;
+    @FXML
+    private Button btExport;
+    @FXML
+    private Button btDeleteSelected;
+    @FXML
+    private Button btMoveSelected;
+    @FXML
+    private TextField txtSearch;
+    @FXML
+    private Button btCancel;
+    @FXML
+    private Label labelStatus;
+    @FXML
+    private ProgressIndicator progressIndicator;
+    @FXML
+    private TextField txtFilterName;
+    @FXML
+    private TextField txtFilterEmail;
+    @FXML
+    private ComboBox<Department> comboBoxFilterDepartment;
+    @FXML
+    private TextField txtFilterMinSalary;
+    @FXML
+    private TextField txtFilterMaxSalary;
+    @FXML
+    private DatePicker dpFilterBirthFrom;
+    @FXML
+    private DatePicker dpFilterBirthTo;
+    @FXML
+    private Button btFilter;
+    @FXML
+    private Button btClearFilter;
+    private LazySellerList observableList;
+    private SellerFilter filter = new SellerFilter();
+    private final Map<TableColumn<Seller, ?>, SellerFilter.SortColumn> sortColumns = new HashMap<>();
+    private CompletableFuture<?> pendingTask;
+    private final ContextMenu searchMenu = new ContextMenu();
 
     @FXML
     public void btNewAction(ActionEvent event) {
@@ -61,6 +115,198 @@ public class SellerListController implements Initializable, DataChangeListener {
         createDialogForm(obj, "/gui/SellerForm.fxml", parentStage);
     }
 
+    @FXML
+    public void btImportAction(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import sellers");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV/TSV files", "*.csv", "*.tsv", "*.txt"));
+        File file = chooser.showOpenDialog(Utils.currentStage(event));
+        if (file == null) return;
+
+        Path source = file.toPath();
+        String extension = file.getName().toLowerCase().endsWith(".tsv") ? ".tsv" : ".csv";
+        Path rejects = source.resolveSibling(file.getName() + ".rejects" + extension);
+        SellerCsvImporter importer = new SellerCsvImporter(departmentService, ServiceFactory.getDepartmentService());
+        CompletableFuture<ImportReport> future = importer.importFileAsync(source, rejects,
+                progress -> Platform.runLater(() -> labelStatus.setText(progress.toString())));
+        future.whenComplete((report, error) -> {
+            if (future.isCancelled()) importer.cancel();
+        });
+        btImport.setDisable(true);
+        future.whenCompleteAsync((report, error) -> btImport.setDisable(false), Platform::runLater);
+        trackProgress(future);
+        Utils.onFxThread(future, report -> {
+            String content = report.toString();
+            if (report.getRejected() > 0) content += "\nRejected rows were written to " + rejects;
+            Alerts.showAlert("Import finished", null, content, Alert.AlertType.INFORMATION);
+            updateTableView();
+        }, e -> Alerts.showAlert("Error importing sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    @FXML
+    public void btExportAction(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export sellers");
+        chooser.setInitialFileName("sellers.csv");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON files", "*.json"));
+        File file = chooser.showSaveDialog(Utils.currentStage(event));
+        if (file == null) return;
+
+        TableExporter exporter = new TableExporter();
+        CompletableFuture<Long> future = exporter.exportSellersAsync(departmentService, file.toPath());
+        future.whenComplete((count, error) -> {
+            if (future.isCancelled()) exporter.cancel();
+        });
+        btExport.setDisable(true);
+        future.whenCompleteAsync((count, error) -> btExport.setDisable(false), Platform::runLater);
+        trackProgress(future);
+        Utils.onFxThread(future,
+                count -> Alerts.showAlert("Export finished", null, count + " rows written to " + file, Alert.AlertType.INFORMATION),
+                e -> Alerts.showAlert("Error exporting sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    @FXML
+    public void btDeleteSelectedAction() {
+        CompletableFuture<List<Integer>> future = selectedIds();
+        trackProgress(future);
+        Utils.onFxThread(future, this::deleteSelected,
+                e -> Alerts.showAlert("Error loading sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private void deleteSelected(List<Integer> ids) {
+        if (ids.isEmpty()) return;
+        Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Delete " + ids.size() + " selected sellers?");
+        if (result.isEmpty() || result.get() != ButtonType.OK) return;
+        CompletableFuture<Integer> future = departmentService.deleteByIdsAsync(ids);
+        trackProgress(future);
+        Utils.onFxThread(future, rows -> onBulkChange(rows + " sellers deleted."),
+                e -> Alerts.showAlert("Error removing sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    @FXML
+    public void btMoveSelectedAction() {
+        CompletableFuture<List<Integer>> future = selectedIds();
+        trackProgress(future);
+        Utils.onFxThread(future, this::moveSelected,
+                e -> Alerts.showAlert("Error loading sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private void moveSelected(List<Integer> ids) {
+        if (ids.isEmpty()) return;
+        ChoiceDialog<Department> dialog = new ChoiceDialog<>(null, comboBoxFilterDepartment.getItems());
+        dialog.setTitle("Move sellers");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Move " + ids.size() + " selected sellers to:");
+        Optional<Department> department = dialog.showAndWait();
+        if (department.isEmpty() || department.get() == null) return;
+        CompletableFuture<Integer> future = departmentService.reassignDepartmentAsync(ids, department.get());
+        trackProgress(future);
+        Utils.onFxThread(future, rows -> onBulkChange(rows + " sellers moved to " + department.get().getName() + "."),
+                e -> Alerts.showAlert("Error moving sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private CompletableFuture<List<Integer>> selectedIds() {
+        List<Integer> indices = new ArrayList<>(tableViewSellers.getSelectionModel().getSelectedIndices());
+        Collections.sort(indices);
+        List<Integer> ids = new ArrayList<>();
+        List<int[]> unloaded = new ArrayList<>();
+        int[] range = null;
+        for (int index : indices) {
+            Integer id = observableList.peekId(index);
+            if (id != null) {
+                ids.add(id);
+            } else if (range != null && range[0] + range[1] == index) {
+                range[1]++;
+            } else {
+                range = new int[]{index, 1};
+                unloaded.add(range);
+            }
+        }
+        if (unloaded.isEmpty()) return CompletableFuture.completedFuture(ids);
+        return departmentService.findIdsAsync(observableList.getFilter(), unloaded).thenApply(found -> {
+            ids.addAll(found);
+            return ids;
+        });
+    }
+
+    private void onBulkChange(String message) {
+        labelStatus.setText(message);
+        tableViewSellers.getSelectionModel().clearSelection();
+        trackProgress(observableList.refresh());
+    }
+
+    @FXML
+    public void txtSearchAction() {
+        if (!searchMenu.getItems().isEmpty() && !searchMenu.getItems().get(0).isDisable()) searchMenu.getItems().get(0).fire();
+    }
+
+    private void updateSearchMenu(String query) {
+        searchMenu.getItems().clear();
+        if (query == null || query.isBlank() || departmentService == null) {
+            searchMenu.hide();
+            return;
+        }
+        if (!ServiceFactory.getSellerSearchIndex().isLoaded()) {
+            MenuItem item = new MenuItem("Search index is loading...");
+            item.setDisable(true);
+            searchMenu.getItems().add(item);
+        }
+        for (SellerSearchIndex.Hit hit : departmentService.search(query)) {
+            MenuItem item = new MenuItem(hit.toString());
+            item.setMnemonicParsing(false);
+            item.setOnAction(event -> openSearchHit(hit));
+            searchMenu.getItems().add(item);
+        }
+        if (searchMenu.getItems().isEmpty()) {
+            MenuItem item = new MenuItem("No sellers found");
+            item.setDisable(true);
+            searchMenu.getItems().add(item);
+        }
+        if (!searchMenu.isShowing()) searchMenu.show(txtSearch, Side.BOTTOM, 0, 0);
+    }
+
+    private void openSearchHit(SellerSearchIndex.Hit hit) {
+        Stage stage = (Stage) txtSearch.getScene().getWindow();
+        Utils.onFxThread(departmentService.findByIdAsync(hit.getId()), seller -> {
+            if (seller == null) Alerts.showAlert("Seller not found", null, hit + " was removed.", Alert.AlertType.INFORMATION);
+            else createDialogForm(seller, "/gui/SellerForm.fxml", stage);
+        }, e -> Alerts.showAlert("Error loading sellers", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    @FXML
+    public void btFilterAction() {
+        SellerFilter newFilter = new SellerFilter().withSort(filter.getSortColumn(), filter.isAscending());
+        newFilter.setName(txtFilterName.getText());
+        newFilter.setEmail(txtFilterEmail.getText());
+        newFilter.setDepartment(comboBoxFilterDepartment.getValue());
+        newFilter.setMinSalary(Utils.tryParseToDouble(txtFilterMinSalary.getText()));
+        newFilter.setMaxSalary(Utils.tryParseToDouble(txtFilterMaxSalary.getText()));
+        newFilter.setBirthDateFrom(dpFilterBirthFrom.getValue());
+        newFilter.setBirthDateTo(dpFilterBirthTo.getValue());
+        filter = newFilter;
+        updateTableView();
+    }
+
+    @FXML
+    public void btClearFilterAction() {
+        txtFilterName.clear();
+        txtFilterEmail.clear();
+        comboBoxFilterDepartment.setValue(null);
+        txtFilterMinSalary.clear();
+        txtFilterMaxSalary.clear();
+        dpFilterBirthFrom.setValue(null);
+        dpFilterBirthTo.setValue(null);
+        filter = new SellerFilter().withSort(filter.getSortColumn(), filter.isAscending());
+        updateTableView();
+    }
+
+    @FXML
+    public void btCancelAction() {
+        if (pendingTask != null) pendingTask.cancel(true);
+    }
+
     public void setSellerService(SellerService service) {
         this.departmentService = service;
     }
@@ -68,6 +314,7 @@ public class SellerListController implements Initializable, DataChangeListener {
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         initializeNodes();
+        ChangeFeed.subscribe(ChangeRecord.SELLER, changes -> Platform.runLater(() -> onRemoteChanges(changes)));
     }
 
     private void initializeNodes() {
@@ -79,46 +326,123 @@ public class SellerListController implements Initializable, DataChangeListener {
         tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
         Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
         Stage stage = (Stage) Program.getMainStage().getWindow();
-        tableViewSellers.prefHeightProperty().bind(stage.heightProperty());
+        Platform.runLater(() -> tableViewSellers.prefHeightProperty().bind(stage.heightProperty()));
+        tableViewSellers.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        btDeleteSelected.disableProperty().bind(Bindings.isEmpty(tableViewSellers.getSelectionModel().getSelectedIndices()));
+        btMoveSelected.disableProperty().bind(Bindings.isEmpty(tableViewSellers.getSelectionModel().getSelectedIndices()));
+        initializeFilterBar();
+        initializeSorting();
+        txtSearch.textProperty().addListener((obs, oldValue, newValue) -> updateSearchMenu(newValue));
+        txtSearch.focusedProperty().addListener((obs, oldValue, focused) -> {
+            if (!focused) searchMenu.hide();
+        });
+        initEditButtons();
+        initRemoveButtons();
+    }
+
+    private void initializeFilterBar() {
+        Constraints.setTextFieldDouble(txtFilterMinSalary);
+        Constraints.setTextFieldDouble(txtFilterMaxSalary);
+        Utils.formatDatePicker(dpFilterBirthFrom, "dd/MM/yyyy");
+        Utils.formatDatePicker(dpFilterBirthTo, "dd/MM/yyyy");
+        Utils.onFxThread(ServiceFactory.getDepartmentService().findAllAsync(),
+                list -> comboBoxFilterDepartment.setItems(FXCollections.observableArrayList(list)),
+                e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    private void initializeSorting() {
+        sortColumns.put(tableColumnId, SellerFilter.SortColumn.ID);
+        sortColumns.put(tableColumnName, SellerFilter.SortColumn.NAME);
+        sortColumns.put(tableColumnEmail, SellerFilter.SortColumn.EMAIL);
+        sortColumns.put(tableColumnBirthDate, SellerFilter.SortColumn.BIRTH_DATE);
+        sortColumns.put(tableColumnBaseSalary, SellerFilter.SortColumn.BASE_SALARY);
+        tableColumnEdit.setSortable(false);
+        tableColumnRemove.setSortable(false);
+        tableViewSellers.setSortPolicy(table -> {
+            SellerFilter.SortColumn column = SellerFilter.SortColumn.NAME;
+            boolean ascending = true;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<Seller, ?> sortColumn = table.getSortOrder().get(0);
+                column = sortColumns.getOrDefault(sortColumn, SellerFilter.SortColumn.NAME);
+                ascending = sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            if (column != filter.getSortColumn() || ascending != filter.isAscending()) {
+                filter = filter.withSort(column, ascending);
+                if (departmentService != null) updateTableView();
+            }
+            return true;
+        });
     }
 
     public void updateTableView() {
         if (departmentService == null) throw new IllegalStateException("The service was null.");
-        List<Seller> list = departmentService.findAll();
-        observableList = FXCollections.observableArrayList(list);
+        if (pendingTask != null) pendingTask.cancel(true);
+        observableList = new LazySellerList(departmentService, filter,
+                e -> Alerts.showAlert("Error loading sellers", null, e.getMessage(), Alert.AlertType.ERROR));
         tableViewSellers.setItems(observableList);
-        initEditButtons();
-        initRemoveButtons();
+        trackProgress(observableList.refresh());
+    }
+
+    private void trackProgress(CompletableFuture<?> future) {
+        pendingTask = future;
+        progressIndicator.setVisible(true);
+        btCancel.setVisible(true);
+        future.whenCompleteAsync((result, error) -> {
+            if (pendingTask != future) return;
+            pendingTask = null;
+            progressIndicator.setVisible(false);
+            btCancel.setVisible(false);
+        }, Platform::runLater);
     }
 
     private void createDialogForm(Seller obj, String absoluteName, Stage parentStage) {
+        long start = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(absoluteName));
-            Pane pane = loader.load();
+            ViewRegistry.View<SellerFormController> view = ViewRegistry.get(absoluteName);
 
-            SellerFormController controller = loader.getController();
+            SellerFormController controller = view.getController();
+            controller.reset();
             controller.setSeller(obj);
-            controller.setSellerServices(new SellerService(), new DepartmentService());
+            controller.setSellerServices(ServiceFactory.getSellerService(), ServiceFactory.getDepartmentService());
             controller.loadAssociatedObjects();
             controller.subscribeDataChangeListener(this);
             controller.updateFormData();
 
-            Stage dialogStage = new Stage();
-            dialogStage.setTitle("Enter department data");
-            dialogStage.setScene(new Scene(pane));
-            dialogStage.setResizable(false);
-            dialogStage.initOwner(parentStage);
-            dialogStage.initModality(Modality.WINDOW_MODAL);/*Modality.WINDOW_MODAL (Responsible for block interaction with other windows. )*/
+            Stage dialogStage = view.getDialogStage("Enter seller data", parentStage);
+            dialogStage.setOnShown(event -> ViewRegistry.logElapsed("Time to dialog " + absoluteName, start));
             dialogStage.showAndWait();
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             e.printStackTrace();
-            Alerts.showAlert("IOException", "Error loading view", e.getMessage(), Alert.AlertType.ERROR);
+            Alerts.showAlert("IOException", "Error loading view", e.getCause().getMessage(), Alert.AlertType.ERROR);
         }
     }
 
     @Override
-    public void onDataChanged() {
-        updateTableView();
+    public void onDataChanged(DataChangeEvent<Seller> event) {
+        if (observableList == null || observableList.getFilter() != filter) {
+            updateTableView();
+            return;
+        }
+        if (event.getType() == DataChangeEvent.Type.UPDATED && observableList.replace(event.getEntity())) return;
+        trackProgress(observableList.refresh());
+    }
+
+    private void onRemoteChanges(List<ChangeRecord> changes) {
+        if (observableList == null || tableViewSellers.getScene() == null) return;
+        for (ChangeRecord change : changes) {
+            if (change.getType() != ChangeRecord.Type.UPDATED || !observableList.isLoaded(change.getEntityId())) {
+                trackProgress(observableList.refresh());
+                return;
+            }
+        }
+        List<Integer> ids = new ArrayList<>(changes.size());
+        for (ChangeRecord change : changes) ids.add(change.getEntityId());
+        Utils.onFxThread(departmentService.findByIdsAsync(ids), sellers -> {
+            for (Seller seller : sellers) {
+                onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.UPDATED, seller, seller.getId()));
+            }
+            if (sellers.size() < ids.size()) trackProgress(observableList.refresh());
+        }, e -> Alerts.showAlert("Error loading sellers", null, e.getMessage(), Alert.AlertType.ERROR));
     }
 
     private void initEditButtons() {
@@ -162,11 +486,10 @@ public class SellerListController implements Initializable, DataChangeListener {
     private void removeEntity(Seller obj) {
         Optional<ButtonType> result = Alerts.showConfirmation("Confirmation", "Are you ensure to delete?");
         if (departmentService == null) throw new IllegalStateException("Seller Service are not was instantiate.");
-        try {
-            if (result.get() == ButtonType.OK) departmentService.remove(obj);
-            updateTableView();
-        } catch (DbIntegrityException e) {
-            Alerts.showAlert("Error removing object", null, e.getMessage(), Alert.AlertType.ERROR);
-        }
+        if (result.isEmpty() || result.get() != ButtonType.OK) return;
+        CompletableFuture<Void> future = departmentService.removeAsync(obj);
+        trackProgress(future);
+        Utils.onFxThread(future, x -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj, obj.getId())),
+                e -> Alerts.showAlert("Error removing object", null, e.getMessage(), Alert.AlertType.ERROR));
     }
 }
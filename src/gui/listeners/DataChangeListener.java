@@ -1,5 +1,5 @@
 package gui.listeners;
 
-public interface DataChangeListener {
-    void onDataChanged();
+public interface DataChangeListener<T> {
+    void onDataChanged(DataChangeEvent<T> event);
 }
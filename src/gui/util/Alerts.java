@@ -22,4 +22,11 @@ public class Alerts {
         alert.setContentText(content);
         return alert.showAndWait();
     }
+
+    public static Optional<ButtonType> showOptions(String title, String content, ButtonType... buttons) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, content, buttons);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        return alert.showAndWait();
+    }
 }
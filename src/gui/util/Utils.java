@@ -1,5 +1,6 @@
 package gui.util;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
 import javafx.scene.control.DatePicker;
@@ -13,6 +14,9 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 
 public class Utils {
@@ -21,6 +25,14 @@ public class Utils {
         return (Stage) ((Node) event.getSource()).getScene().getWindow();
     }
 
+    public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((result, error) -> {
+            if (future.isCancelled()) return;
+            if (error == null) onSuccess.accept(result);
+            else onError.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }, Platform::runLater);
+    }
+
     public static Integer tryParseToInteger(String str) {
         try {
             return Integer.parseInt(str);
@@ -0,0 +1,108 @@
+package gui.util;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ViewRegistry {
+
+    private static final System.Logger LOGGER = System.getLogger(ViewRegistry.class.getName());
+
+    private static final Map<String, View<?>> views = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <C> View<C> get(String absoluteName) {
+        return (View<C>) views.computeIfAbsent(absoluteName, ViewRegistry::load);
+    }
+
+    public static CompletableFuture<Void> warmUp(String... absoluteNames) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Platform.runLater(() -> warmUp(absoluteNames, 0, System.nanoTime(), future));
+        return future;
+    }
+
+    private static void warmUp(String[] absoluteNames, int next, long start, CompletableFuture<Void> future) {
+        if (next == absoluteNames.length) {
+            logElapsed("Preloaded " + absoluteNames.length + " views", start);
+            future.complete(null);
+            return;
+        }
+        try {
+            get(absoluteNames[next]);
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Could not preload view " + absoluteNames[next] + ": " + e.getMessage());
+        }
+        Platform.runLater(() -> warmUp(absoluteNames, next + 1, start, future));
+    }
+
+    public static void logElapsed(String what, long startNanos) {
+        LOGGER.log(System.Logger.Level.INFO, String.format("%s in %.1f ms", what, (System.nanoTime() - startNanos) / 1_000_000.0));
+    }
+
+    private static View<?> load(String absoluteName) {
+        long start = System.nanoTime();
+        try {
+            FXMLLoader loader = new FXMLLoader(ViewRegistry.class.getResource(absoluteName));
+            Parent root = loader.load();
+            View<?> view = new View<>(root, loader.getController());
+            logElapsed("Loaded " + absoluteName, start);
+            return view;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class View<C> {
+
+        private final Parent root;
+        private final C controller;
+        private final List<Node> content;
+        private Scene scene;
+        private Stage dialogStage;
+
+        private View(Parent root, C controller) {
+            this.root = root;
+            this.controller = controller;
+            this.content = root instanceof Pane ? List.copyOf(((Pane) root).getChildren()) : List.of(root);
+        }
+
+        public Parent getRoot() {
+            return root;
+        }
+
+        public C getController() {
+            return controller;
+        }
+
+        public List<Node> getContent() {
+            return content;
+        }
+
+        public Stage getDialogStage(String title, Window owner) {
+            if (dialogStage == null || dialogStage.getOwner() != owner) {
+                if (dialogStage != null) dialogStage.setScene(null);
+                if (scene == null) scene = new Scene(root);
+                dialogStage = new Stage();
+                dialogStage.setScene(scene);
+                dialogStage.setResizable(false);
+                dialogStage.initOwner(owner);
+                dialogStage.initModality(Modality.WINDOW_MODAL);
+            }
+            dialogStage.setTitle(title);
+            return dialogStage;
+        }
+    }
+}
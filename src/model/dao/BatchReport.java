@@ -0,0 +1,35 @@
+package model.dao;
+
+public class BatchReport {
+
+    private final int rows;
+    private final int batches;
+    private final long elapsedNanos;
+
+    public BatchReport(int rows, int batches, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows in %d batches, %d ms (%.0f rows/s)", rows, batches, getElapsedMillis(), getRowsPerSecond());
+    }
+}
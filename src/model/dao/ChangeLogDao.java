@@ -0,0 +1,13 @@
+package model.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogDao {
+
+    long findLastId();
+
+    List<ChangeRecord> findAfter(long afterId, Collection<Long> gaps, int limit);
+
+    int deleteOlderThan(int hours);
+}
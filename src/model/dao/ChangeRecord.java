@@ -0,0 +1,57 @@
+package model.dao;
+
+import java.util.UUID;
+
+public class ChangeRecord {
+
+    public static final String SELLER = "Seller";
+    public static final String DEPARTMENT = "Department";
+    public static final String LOCAL_ORIGIN = UUID.randomUUID().toString();
+
+    public enum Type {
+        INSERTED, UPDATED, DELETED
+    }
+
+    private final long id;
+    private final String entityType;
+    private final int entityId;
+    private final Type type;
+    private final String origin;
+
+    public ChangeRecord(long id, String entityType, int entityId, Type type, String origin) {
+        this.id = id;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.type = type;
+        this.origin = origin;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public boolean isLocal() {
+        return LOCAL_ORIGIN.equals(origin);
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + type + " " + entityType + " " + entityId;
+    }
+}
@@ -1,16 +1,21 @@
 package model.dao;
 
 import db.DB;
+import model.dao.impl.ChangeLogDaoJDBC;
 import model.dao.impl.DepartmentDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
 
 public class DaoFactory {
 
     public static SellerDao createSellerDao() {
-        return new SellerDaoJDBC(DB.getConnection());
+        return new SellerDaoJDBC(DB.getRouter());
     }
 
     public static DepartmentDao createDepartmentDao() {
-        return new DepartmentDaoJDBC(DB.getConnection());
+        return new DepartmentDaoJDBC(DB.getRouter());
+    }
+
+    public static ChangeLogDao createChangeLogDao() {
+        return new ChangeLogDaoJDBC(DB.getRouter());
     }
 }
@@ -0,0 +1,97 @@
+package model.dao;
+
+import model.entities.Department;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class DepartmentCache {
+
+    private static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000;
+    private static final Comparator<Department> BY_NAME =
+            Comparator.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Department::getId);
+
+    private static final Map<Integer, Department> departments = new ConcurrentHashMap<>();
+    private static volatile List<Department> sorted = null;
+    private static volatile long loadedAt = 0;
+    private static volatile long ttlMillis = DEFAULT_TTL_MILLIS;
+
+    public static Department canonicalize(Integer id, String name) {
+        return canonicalize(id, name, null);
+    }
+
+    public static Department canonicalize(Integer id, String name, Integer version) {
+        Department dep = departments.get(id);
+        if (dep != null && isCurrent(dep, name, version)) return dep;
+        synchronized (DepartmentCache.class) {
+            dep = departments.get(id);
+            if (dep == null || !isCurrent(dep, name, version)) {
+                Department replacement = new Department(id, name);
+                replacement.setVersion(version != null ? version : dep == null ? null : dep.getVersion());
+                departments.put(id, replacement);
+                sorted = null;
+                dep = replacement;
+            }
+            return dep;
+        }
+    }
+
+    private static boolean isCurrent(Department dep, String name, Integer version) {
+        return Objects.equals(name, dep.getName()) && (version == null || version.equals(dep.getVersion()));
+    }
+
+    public static Department get(Integer id) {
+        return isFresh() ? departments.get(id) : null;
+    }
+
+    public static List<Department> findAll(Supplier<List<Department>> loader) {
+        List<Department> list = sorted;
+        if (list != null && isFresh()) return list;
+        synchronized (DepartmentCache.class) {
+            if (!isFresh()) {
+                List<Department> loaded = loader.get();
+                departments.keySet().retainAll(loaded.stream().map(Department::getId).toList());
+                for (Department dep : loaded) canonicalize(dep.getId(), dep.getName(), dep.getVersion());
+                loadedAt = System.currentTimeMillis();
+                sorted = null;
+            }
+            return sorted != null ? sorted : snapshot();
+        }
+    }
+
+    public static synchronized void put(Department department) {
+        canonicalize(department.getId(), department.getName(), department.getVersion());
+        sorted = null;
+    }
+
+    public static synchronized void remove(Integer id) {
+        departments.remove(id);
+        sorted = null;
+    }
+
+    public static void invalidate() {
+        loadedAt = 0;
+        sorted = null;
+    }
+
+    public static void setTimeToLive(long millis) {
+        ttlMillis = millis;
+    }
+
+    private static boolean isFresh() {
+        return loadedAt != 0 && System.currentTimeMillis() - loadedAt < ttlMillis;
+    }
+
+    private static List<Department> snapshot() {
+        List<Department> list = new ArrayList<>(departments.values());
+        list.sort(BY_NAME);
+        list = List.copyOf(list);
+        sorted = list;
+        return list;
+    }
+}
@@ -3,6 +3,7 @@ package model.dao;
 import model.entities.Department;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface DepartmentDao {
 
@@ -15,4 +16,8 @@ public interface DepartmentDao {
     Department findById(Integer id);
 
     List<Department> findAll();
+
+    List<Department> findByNamePrefix(String prefix, int limit);
+
+    long streamAll(int fetchSize, Consumer<Department> action);
 }
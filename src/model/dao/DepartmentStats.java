@@ -0,0 +1,55 @@
+package model.dao;
+
+import model.entities.Department;
+
+public class DepartmentStats {
+
+    private final Department department;
+    private final int sellers;
+    private final double totalSalary;
+    private final double averageSalary;
+    private final double minSalary;
+    private final double maxSalary;
+
+    public DepartmentStats(Department department, int sellers, double totalSalary, double averageSalary, double minSalary, double maxSalary) {
+        this.department = department;
+        this.sellers = sellers;
+        this.totalSalary = totalSalary;
+        this.averageSalary = averageSalary;
+        this.minSalary = minSalary;
+        this.maxSalary = maxSalary;
+    }
+
+    public Department getDepartment() {
+        return department;
+    }
+
+    public String getDepartmentName() {
+        return department.getName();
+    }
+
+    public int getSellers() {
+        return sellers;
+    }
+
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    public double getAverageSalary() {
+        return averageSalary;
+    }
+
+    public double getMinSalary() {
+        return minSalary;
+    }
+
+    public double getMaxSalary() {
+        return maxSalary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d sellers, total %.2f, average %.2f", department.getName(), sellers, totalSalary, averageSalary);
+    }
+}
@@ -3,7 +3,10 @@ package model.dao;
 import model.entities.Department;
 import model.entities.Seller;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.function.Consumer;
 
 public interface SellerDao {
 
@@ -15,7 +18,39 @@ public interface SellerDao {
 
     Seller findById(Integer id);
 
+    List<Seller> findByIds(Collection<Integer> ids, int chunkSize);
+
     List<Seller> findAll();
 
     List<Seller> findByDepartment(Department department);
+
+    List<Seller> findPage(Seller after, int pageSize);
+
+    List<Seller> findPage(SellerFilter filter, Seller after, int pageSize);
+
+    List<Seller> findRange(SellerFilter filter, int offset, int limit);
+
+    List<Integer> findIds(SellerFilter filter, int offset, int limit);
+
+    int count(SellerFilter filter);
+
+    List<DepartmentStats> findDepartmentStats();
+
+    double[] findSalaryPercentiles(double[] fractions);
+
+    SortedMap<Integer, Integer> countByBirthYear();
+
+    BatchReport insertAll(Collection<Seller> sellers, int batchSize);
+
+    BatchReport updateAll(Collection<Seller> sellers, int batchSize);
+
+    int deleteByIds(Collection<Integer> ids, int chunkSize);
+
+    int reassignDepartment(Collection<Integer> ids, Department department, int chunkSize);
+
+    int reassignDepartment(Department from, Department to);
+
+    int deleteByDepartment(Department department);
+
+    long streamAll(int fetchSize, Consumer<Seller> action);
 }
@@ -0,0 +1,166 @@
+package model.dao;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Function;
+
+public class SellerFilter {
+
+    public enum SortColumn {
+        ID("seller.Id", Seller::getId),
+        NAME("seller.Name", Seller::getName),
+        EMAIL("seller.Email", Seller::getEmail),
+        BIRTH_DATE("seller.BirthDate", Seller::getBirthDate),
+        BASE_SALARY("seller.BaseSalary", Seller::getBaseSalary);
+
+        private final String sql;
+        private final Function<Seller, Object> getter;
+
+        SortColumn(String sql, Function<Seller, Object> getter) {
+            this.sql = sql;
+            this.getter = getter;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Object keyOf(Seller seller) {
+            return getter.apply(seller);
+        }
+    }
+
+    private String name;
+    private String email;
+    private Department department;
+    private Double minSalary;
+    private Double maxSalary;
+    private LocalDate birthDateFrom;
+    private LocalDate birthDateTo;
+    private SortColumn sortColumn = SortColumn.NAME;
+    private boolean ascending = true;
+
+    public SellerFilter withSort(SortColumn sortColumn, boolean ascending) {
+        SellerFilter copy = new SellerFilter();
+        copy.name = name;
+        copy.email = email;
+        copy.department = department;
+        copy.minSalary = minSalary;
+        copy.maxSalary = maxSalary;
+        copy.birthDateFrom = birthDateFrom;
+        copy.birthDateTo = birthDateTo;
+        copy.setSortColumn(sortColumn);
+        copy.ascending = ascending;
+        return copy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = blankToNull(name);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = blankToNull(email);
+    }
+
+    public Department getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(Department department) {
+        this.department = department;
+    }
+
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    public void setMinSalary(Double minSalary) {
+        this.minSalary = minSalary;
+    }
+
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+
+    public void setMaxSalary(Double maxSalary) {
+        this.maxSalary = maxSalary;
+    }
+
+    public LocalDate getBirthDateFrom() {
+        return birthDateFrom;
+    }
+
+    public void setBirthDateFrom(LocalDate birthDateFrom) {
+        this.birthDateFrom = birthDateFrom;
+    }
+
+    public LocalDate getBirthDateTo() {
+        return birthDateTo;
+    }
+
+    public void setBirthDateTo(LocalDate birthDateTo) {
+        this.birthDateTo = birthDateTo;
+    }
+
+    public SortColumn getSortColumn() {
+        return sortColumn;
+    }
+
+    public void setSortColumn(SortColumn sortColumn) {
+        this.sortColumn = Objects.requireNonNull(sortColumn);
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public void setAscending(boolean ascending) {
+        this.ascending = ascending;
+    }
+
+    public boolean matches(Seller seller) {
+        if (name != null && !containsIgnoreCase(seller.getName(), name)) return false;
+        if (email != null && !containsIgnoreCase(seller.getEmail(), email)) return false;
+        if (department != null && !department.equals(seller.getDepartment())) return false;
+        if (minSalary != null && (seller.getBaseSalary() == null || seller.getBaseSalary() < minSalary)) return false;
+        if (maxSalary != null && (seller.getBaseSalary() == null || seller.getBaseSalary() > maxSalary)) return false;
+        if (birthDateFrom != null || birthDateTo != null) {
+            if (seller.getBirthDate() == null) return false;
+            LocalDate birthDate = LocalDate.ofInstant(seller.getBirthDate().toInstant(), ZoneId.systemDefault());
+            if (birthDateFrom != null && birthDate.isBefore(birthDateFrom)) return false;
+            if (birthDateTo != null && birthDate.isAfter(birthDateTo)) return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<Seller> comparator() {
+        Comparator<Object> keys = Comparator.nullsFirst((a, b) -> a instanceof String
+                ? String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b)
+                : ((Comparable) a).compareTo(b));
+        Comparator<Seller> comparator = Comparator.comparing(sortColumn::keyOf, keys);
+        comparator = comparator.thenComparing(Seller::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        return text != null && text.toLowerCase().contains(part.toLowerCase());
+    }
+
+    private static String blankToNull(String text) {
+        return text == null || text.trim().isEmpty() ? null : text.trim();
+    }
+}
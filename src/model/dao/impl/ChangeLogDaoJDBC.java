@@ -0,0 +1,154 @@
+package model.dao.impl;
+
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+import db.QueryMetrics;
+import db.QueryTimer;
+import db.ReplicaRouter;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeRecord;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class ChangeLogDaoJDBC implements ChangeLogDao {
+
+    private final ReplicaRouter router;
+
+    public ChangeLogDaoJDBC(ConnectionPool pool) {
+        this(new ReplicaRouter(pool));
+    }
+
+    public ChangeLogDaoJDBC(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    static void record(Connection conn, String entityType, ChangeRecord.Type type, int... ids) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            st = conn.prepareStatement(
+                    "INSERT INTO change_log "
+                            + "(EntityType, EntityId, ChangeType, Origin) "
+                            + "VALUES "
+                            + "(?, ?, ?, ?)");
+            for (int id : ids) {
+                st.setString(1, entityType);
+                st.setInt(2, id);
+                st.setString(3, type.name());
+                st.setString(4, ChangeRecord.LOCAL_ORIGIN);
+                st.addBatch();
+            }
+            st.executeBatch();
+        } finally {
+            DB.closeStatement(st);
+        }
+    }
+
+    static void recordSellersOfDepartment(Connection conn, ChangeRecord.Type type, int departmentId) throws SQLException {
+        PreparedStatement st = null;
+        try {
+            st = conn.prepareStatement(
+                    "INSERT INTO change_log "
+                            + "(EntityType, EntityId, ChangeType, Origin) "
+                            + "SELECT ?, Id, ?, ? FROM seller WHERE DepartmentId = ?");
+            st.setString(1, ChangeRecord.SELLER);
+            st.setString(2, type.name());
+            st.setString(3, ChangeRecord.LOCAL_ORIGIN);
+            st.setInt(4, departmentId);
+            st.executeUpdate();
+        } finally {
+            DB.closeStatement(st);
+        }
+    }
+
+    @Override
+    public long findLastId() {
+        QueryTimer timer = QueryMetrics.start("ChangeLogDao.findLastId");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getPrimary().getConnection();
+            st = conn.prepareStatement("SELECT MAX(Id) FROM change_log");
+            rs = st.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public List<ChangeRecord> findAfter(long afterId, Collection<Long> gaps, int limit) {
+        QueryTimer timer = QueryMetrics.start("ChangeLogDao.findAfter");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder sql = new StringBuilder("SELECT * FROM change_log WHERE Id > ?");
+            if (!gaps.isEmpty()) {
+                sql.append(" OR Id IN (").append(String.join(", ", Collections.nCopies(gaps.size(), "?"))).append(")");
+            }
+            sql.append(" ORDER BY Id LIMIT ?");
+
+            conn = router.getPrimary().getConnection();
+            st = conn.prepareStatement(sql.toString());
+            int index = 1;
+            st.setLong(index++, afterId);
+            for (Long gap : gaps) st.setLong(index++, gap);
+            st.setInt(index, limit);
+            rs = st.executeQuery();
+
+            List<ChangeRecord> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(new ChangeRecord(
+                        rs.getLong("Id"),
+                        rs.getString("EntityType"),
+                        rs.getInt("EntityId"),
+                        ChangeRecord.Type.valueOf(rs.getString("ChangeType")),
+                        rs.getString("Origin")));
+            }
+            timer.rows(list.size());
+            return list;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public int deleteOlderThan(int hours) {
+        QueryTimer timer = QueryMetrics.start("ChangeLogDao.deleteOlderThan");
+        Connection conn = null;
+        PreparedStatement st = null;
+        try {
+            conn = router.getPrimary().getConnection();
+            st = conn.prepareStatement("DELETE FROM change_log WHERE CreatedAt < ?");
+            st.setTimestamp(1, new Timestamp(System.currentTimeMillis() - hours * 3_600_000L));
+            int rows = st.executeUpdate();
+            timer.rows(rows);
+            return rows;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+}
@@ -1,77 +1,138 @@
 package model.dao.impl;
 
+import db.CancellableQuery;
+import db.ConnectionPool;
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.ReplicaRouter;
+import db.QueryMetrics;
+import db.QueryTimer;
 import db.DbIntegrityException;
+import model.dao.ChangeRecord;
+import model.dao.DepartmentCache;
 import model.dao.DepartmentDao;
 import model.entities.Department;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-    private Connection conn;
+    private final ReplicaRouter router;
 
-    public DepartmentDaoJDBC(Connection conn) {
-        this.conn = conn;
+    public DepartmentDaoJDBC(ConnectionPool pool) {
+        this(new ReplicaRouter(pool));
+    }
+
+    public DepartmentDaoJDBC(ReplicaRouter router) {
+        this.router = router;
     }
 
     @Override
     public Department findById(Integer id) {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.findById");
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = router.getReadConnection();
             st = conn.prepareStatement(
                     "SELECT * FROM department WHERE Id = ?");
             st.setInt(1, id);
             rs = st.executeQuery();
             if (rs.next()) {
-                Department obj = new Department();
-                obj.setId(rs.getInt("Id"));
-                obj.setName(rs.getString("Name"));
-                return obj;
+                timer.rows(1);
+                return DepartmentCache.canonicalize(rs.getInt("Id"), rs.getString("Name"), rs.getInt("Version"));
             }
             return null;
         } catch (SQLException e) {
+            timer.fail();
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public List<Department> findAll() {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.findAll");
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = router.getReadConnection();
             st = conn.prepareStatement(
                     "SELECT * FROM department ORDER BY Name");
+            CancellableQuery.register(st);
+            rs = st.executeQuery();
+
+            List<Department> list = new ArrayList<>();
+
+            while (rs.next()) {
+                list.add(DepartmentCache.canonicalize(rs.getInt("Id"), rs.getString("Name"), rs.getInt("Version")));
+            }
+            timer.rows(list.size());
+            return list;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            CancellableQuery.unregister(st);
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public List<Department> findByNamePrefix(String prefix, int limit) {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.findByNamePrefix");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(
+                    "SELECT * FROM department WHERE Name LIKE ? ESCAPE '!' ORDER BY Name LIMIT ?");
+            st.setString(1, SellerDaoJDBC.escapeLike(prefix == null ? "" : prefix) + "%");
+            st.setInt(2, limit);
             rs = st.executeQuery();
 
             List<Department> list = new ArrayList<>();
 
             while (rs.next()) {
-                Department obj = new Department();
-                obj.setId(rs.getInt("Id"));
-                obj.setName(rs.getString("Name"));
-                list.add(obj);
+                list.add(DepartmentCache.canonicalize(rs.getInt("Id"), rs.getString("Name"), rs.getInt("Version")));
             }
+            timer.rows(list.size());
             return list;
         } catch (SQLException e) {
+            timer.fail();
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public void insert(Department obj) {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.insert");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement(
                     "INSERT INTO department " +
                             "(Name) " +
@@ -82,57 +143,141 @@ public class DepartmentDaoJDBC implements DepartmentDao {
             st.setString(1, obj.getName());
 
             int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
 
             if (rowsAffected > 0) {
                 ResultSet rs = st.getGeneratedKeys();
-                if (rs.next()) {
-                    int id = rs.getInt(1);
-                    obj.setId(id);
+                int id;
+                try {
+                    if (!rs.next()) throw new SQLException("No generated key returned.");
+                    id = rs.getInt(1);
+                } finally {
+                    DB.closeResultSet(rs);
                 }
+                ChangeLogDaoJDBC.record(conn, ChangeRecord.DEPARTMENT, ChangeRecord.Type.INSERTED, id);
+                if (!managed) conn.commit();
+                obj.setId(id);
+                obj.setVersion(0);
             } else {
                 throw new DbException("Unexpected error! No rows affected!");
             }
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbException(e.getMessage());
+        } catch (DbException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw e;
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public void update(Department obj) {
+        if (obj.getVersion() == null) throw new DbException("Department " + obj.getId() + " has no version to update.");
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.update");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement(
                     "UPDATE department " +
-                            "SET Name = ? " +
-                            "WHERE Id = ?");
+                            "SET Name = ?, Version = Version + 1 " +
+                            "WHERE Id = ? AND Version = ?");
 
             st.setString(1, obj.getName());
             st.setInt(2, obj.getId());
+            st.setInt(3, obj.getVersion());
 
-            st.executeUpdate();
+            int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
+            if (rowsAffected == 0) {
+                throw new DbConcurrencyException("Department " + obj.getId() + " was changed or removed by another user.");
+            }
+            ChangeLogDaoJDBC.record(conn, ChangeRecord.DEPARTMENT, ChangeRecord.Type.UPDATED, obj.getId());
+            if (!managed) conn.commit();
+            obj.setVersion(obj.getVersion() + 1);
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbException(e.getMessage());
+        } catch (DbException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw e;
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public void deleteById(Integer id) {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.deleteById");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement(
                     "DELETE FROM department WHERE Id = ?");
 
             st.setInt(1, id);
 
-            st.executeUpdate();
+            int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
+            if (rowsAffected > 0) ChangeLogDaoJDBC.record(conn, ChangeRecord.DEPARTMENT, ChangeRecord.Type.DELETED, id);
+            if (!managed) conn.commit();
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbIntegrityException(e.getMessage());
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public long streamAll(int fetchSize, Consumer<Department> action) {
+        QueryTimer timer = QueryMetrics.start("DepartmentDao.streamAll");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(
+                    "SELECT * FROM department ORDER BY Name",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(fetchSize);
+            rs = st.executeQuery();
+
+            long count = 0;
+            while (rs.next()) {
+                action.accept(DepartmentCache.canonicalize(rs.getInt("Id"), rs.getString("Name"), rs.getInt("Version")));
+                count++;
+            }
+            timer.rows(count);
+            return count;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 }
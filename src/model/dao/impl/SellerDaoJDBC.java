@@ -1,29 +1,57 @@
 package model.dao.impl;
 
+import db.CancellableQuery;
+import db.ConnectionPool;
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.DbIntegrityException;
+import db.ReplicaRouter;
+import db.QueryMetrics;
+import db.QueryTimer;
+import model.dao.BatchReport;
+import model.dao.ChangeRecord;
+import model.dao.DepartmentCache;
+import model.dao.DepartmentStats;
 import model.dao.SellerDao;
+import model.dao.SellerFilter;
 import model.entities.Department;
 import model.entities.Seller;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 public class SellerDaoJDBC implements SellerDao {
 
-    private Connection conn;
+    private final ReplicaRouter router;
 
-    public SellerDaoJDBC(Connection conn) {
-        this.conn = conn;
+    public SellerDaoJDBC(ConnectionPool pool) {
+        this(new ReplicaRouter(pool));
+    }
+
+    public SellerDaoJDBC(ReplicaRouter router) {
+        this.router = router;
     }
 
     @Override
     public void insert(Seller obj) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.insert");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement(
                     "INSERT INTO seller "
                             + "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
@@ -38,32 +66,54 @@ public class SellerDaoJDBC implements SellerDao {
             st.setInt(5, obj.getDepartment().getId());
 
             int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
 
             if (rowsAffected > 0) {
                 ResultSet rs = st.getGeneratedKeys();
-                if (rs.next()) {
-                    int id = rs.getInt(1);
-                    obj.setId(id);
+                int id;
+                try {
+                    if (!rs.next()) throw new SQLException("No generated key returned.");
+                    id = rs.getInt(1);
+                } finally {
+                    DB.closeResultSet(rs);
                 }
-                DB.closeResultSet(rs);
+                ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, ChangeRecord.Type.INSERTED, id);
+                if (!managed) conn.commit();
+                obj.setId(id);
+                obj.setVersion(0);
             } else {
                 throw new DbException("Unexpected error! No rows affected!");
             }
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbException(e.getMessage());
+        } catch (DbException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw e;
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public void update(Seller obj) {
+        if (obj.getVersion() == null) throw new DbException("Seller " + obj.getId() + " has no version to update.");
+        QueryTimer timer = QueryMetrics.start("SellerDao.update");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement(
                     "UPDATE seller "
-                            + "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
-                            + "WHERE Id = ?");
+                            + "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1 "
+                            + "WHERE Id = ? AND Version = ?");
 
             st.setString(1, obj.getName());
             st.setString(2, obj.getEmail());
@@ -71,36 +121,68 @@ public class SellerDaoJDBC implements SellerDao {
             st.setDouble(4, obj.getBaseSalary());
             st.setInt(5, obj.getDepartment().getId());
             st.setInt(6, obj.getId());
+            st.setInt(7, obj.getVersion());
 
-            st.executeUpdate();
+            int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
+            if (rowsAffected == 0) {
+                throw new DbConcurrencyException("Seller " + obj.getId() + " was changed or removed by another user.");
+            }
+            ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, ChangeRecord.Type.UPDATED, obj.getId());
+            if (!managed) conn.commit();
+            obj.setVersion(obj.getVersion() + 1);
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbException(e.getMessage());
+        } catch (DbException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw e;
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public void deleteById(Integer id) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.deleteById");
+        Connection conn = null;
         PreparedStatement st = null;
+        boolean managed = false;
         try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
             st = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
 
             st.setInt(1, id);
 
-            st.executeUpdate();
+            int rowsAffected = st.executeUpdate();
+            timer.rows(rowsAffected);
+            if (rowsAffected > 0) ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, ChangeRecord.Type.DELETED, id);
+            if (!managed) conn.commit();
         } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public Seller findById(Integer id) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.findById");
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = router.getReadConnection();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName "
                             + "FROM seller INNER JOIN department "
@@ -110,42 +192,71 @@ public class SellerDaoJDBC implements SellerDao {
             st.setInt(1, id);
             rs = st.executeQuery();
             if (rs.next()) {
-                Department dep = instantiateDepartment(rs);
-                Seller obj = instantiateSeller(rs, dep);
-                return obj;
+                timer.rows(1);
+                return SellerRowMapper.of(rs).map(rs);
             }
             return null;
         } catch (SQLException e) {
+            timer.fail();
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
-    private Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
-        Seller obj = new Seller();
-        obj.setId(rs.getInt("Id"));
-        obj.setName(rs.getString("Name"));
-        obj.setEmail(rs.getString("Email"));
-        obj.setBaseSalary(rs.getDouble("BaseSalary"));
-        obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-        obj.setDepartment(dep);
-        return obj;
-    }
-
-    private Department instantiateDepartment(ResultSet rs) throws SQLException {
-        Department dep = new Department();
-        dep.setId(rs.getInt("DepartmentId"));
-        dep.setName(rs.getString("DepName"));
-        return dep;
+    @Override
+    public List<Seller> findByIds(Collection<Integer> ids, int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive.");
+        if (ids.isEmpty()) return new ArrayList<>();
+        QueryTimer timer = QueryMetrics.start("SellerDao.findByIds");
+        Connection conn = null;
+        try {
+            conn = router.getReadConnection();
+            List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            List<Seller> list = new ArrayList<>(distinct.size());
+            for (int from = 0; from < distinct.size(); from += chunkSize) {
+                List<Integer> chunk = distinct.subList(from, Math.min(distinct.size(), from + chunkSize));
+                PreparedStatement st = null;
+                ResultSet rs = null;
+                try {
+                    st = conn.prepareStatement(
+                            "SELECT seller.*,department.Name as DepName "
+                                    + "FROM seller INNER JOIN department "
+                                    + "ON seller.DepartmentId = department.Id "
+                                    + "WHERE seller.Id IN " + placeholders(chunk.size()));
+                    for (int i = 0; i < chunk.size(); i++) st.setInt(i + 1, chunk.get(i));
+                    rs = st.executeQuery();
+                    SellerRowMapper mapper = SellerRowMapper.of(rs);
+                    while (rs.next()) {
+                        list.add(mapper.map(rs));
+                    }
+                } finally {
+                    DB.closeStatement(st);
+                    DB.closeResultSet(rs);
+                }
+            }
+            timer.rows(list.size());
+            return list;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeConnection(conn);
+            timer.stop();
+        }
     }
 
     @Override
     public List<Seller> findAll() {
+        QueryTimer timer = QueryMetrics.start("SellerDao.findAll");
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = router.getReadConnection();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName "
                             + "FROM seller INNER JOIN department "
@@ -155,34 +266,32 @@ public class SellerDaoJDBC implements SellerDao {
             rs = st.executeQuery();
 
             List<Seller> list = new ArrayList<>();
-            Map<Integer, Department> map = new HashMap<>();
 
+            SellerRowMapper mapper = SellerRowMapper.of(rs);
             while (rs.next()) {
-
-                Department dep = map.get(rs.getInt("DepartmentId"));
-
-                if (dep == null) {
-                    dep = instantiateDepartment(rs);
-                    map.put(rs.getInt("DepartmentId"), dep);
-                }
-
-                Seller obj = instantiateSeller(rs, dep);
-                list.add(obj);
+                list.add(mapper.map(rs));
             }
+            timer.rows(list.size());
             return list;
         } catch (SQLException e) {
+            timer.fail();
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 
     @Override
     public List<Seller> findByDepartment(Department department) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.findByDepartment");
+        Connection conn = null;
         PreparedStatement st = null;
         ResultSet rs = null;
         try {
+            conn = router.getReadConnection();
             st = conn.prepareStatement(
                     "SELECT seller.*,department.Name as DepName "
                             + "FROM seller INNER JOIN department "
@@ -195,26 +304,656 @@ public class SellerDaoJDBC implements SellerDao {
             rs = st.executeQuery();
 
             List<Seller> list = new ArrayList<>();
-            Map<Integer, Department> map = new HashMap<>();
 
+            SellerRowMapper mapper = SellerRowMapper.of(rs);
             while (rs.next()) {
+                list.add(mapper.map(rs));
+            }
+            timer.rows(list.size());
+            return list;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public List<Seller> findPage(Seller after, int pageSize) {
+        return findPage(new SellerFilter(), after, pageSize);
+    }
+
+    @Override
+    public List<Seller> findPage(SellerFilter filter, Seller after, int pageSize) {
+        return findPage("SellerDao.findPage", filter, after, 0, pageSize);
+    }
 
-                Department dep = map.get(rs.getInt("DepartmentId"));
+    @Override
+    public List<Seller> findRange(SellerFilter filter, int offset, int limit) {
+        return findPage("SellerDao.findRange", filter, null, offset, limit);
+    }
 
-                if (dep == null) {
-                    dep = instantiateDepartment(rs);
-                    map.put(rs.getInt("DepartmentId"), dep);
+    private List<Seller> findPage(String metric, SellerFilter filter, Seller after, int offset, int pageSize) {
+        QueryTimer timer = QueryMetrics.start(metric);
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT seller.*,department.Name as DepName "
+                            + "FROM seller INNER JOIN department "
+                            + "ON seller.DepartmentId = department.Id ");
+            List<Object> params = new ArrayList<>();
+            appendWhere(sql, params, filter);
+
+            String column = filter.getSortColumn().getSql();
+            String direction = filter.isAscending() ? "ASC" : "DESC";
+            if (after != null) {
+                String op = filter.isAscending() ? ">" : "<";
+                sql.append(params.isEmpty() ? "WHERE " : "AND ");
+                if (filter.getSortColumn() == SellerFilter.SortColumn.ID) {
+                    sql.append("seller.Id ").append(op).append(" ? ");
+                } else {
+                    sql.append("(").append(column).append(" ").append(op).append(" ? OR (")
+                            .append(column).append(" = ? AND seller.Id ").append(op).append(" ?)) ");
+                    params.add(filter.getSortColumn().keyOf(after));
+                    params.add(filter.getSortColumn().keyOf(after));
                 }
+                params.add(after.getId());
+            }
+            sql.append("ORDER BY ").append(column).append(" ").append(direction);
+            if (filter.getSortColumn() != SellerFilter.SortColumn.ID) sql.append(", seller.Id ").append(direction);
+            sql.append(" LIMIT ?");
+            params.add(pageSize);
+            if (offset > 0) {
+                sql.append(" OFFSET ?");
+                params.add(offset);
+            }
+
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(sql.toString());
+            CancellableQuery.register(st);
+            bind(st, params);
+
+            rs = st.executeQuery();
+
+            List<Seller> list = new ArrayList<>(pageSize);
+
+            SellerRowMapper mapper = SellerRowMapper.of(rs);
+            while (rs.next()) {
+                list.add(mapper.map(rs));
+            }
+            timer.rows(list.size());
+            return list;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            CancellableQuery.unregister(st);
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public List<Integer> findIds(SellerFilter filter, int offset, int limit) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.findIds");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder sql = new StringBuilder("SELECT seller.Id FROM seller ");
+            List<Object> params = new ArrayList<>();
+            appendWhere(sql, params, filter);
+
+            String direction = filter.isAscending() ? "ASC" : "DESC";
+            sql.append("ORDER BY ").append(filter.getSortColumn().getSql()).append(" ").append(direction);
+            if (filter.getSortColumn() != SellerFilter.SortColumn.ID) sql.append(", seller.Id ").append(direction);
+            sql.append(" LIMIT ? OFFSET ?");
+            params.add(limit);
+            params.add(offset);
+
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(sql.toString());
+            bind(st, params);
+
+            rs = st.executeQuery();
+            List<Integer> ids = new ArrayList<>(limit);
+            while (rs.next()) ids.add(rs.getInt(1));
+            timer.rows(ids.size());
+            return ids;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public int count(SellerFilter filter) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.count");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM seller ");
+            List<Object> params = new ArrayList<>();
+            appendWhere(sql, params, filter);
+
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(sql.toString());
+            CancellableQuery.register(st);
+            bind(st, params);
 
-                Seller obj = instantiateSeller(rs, dep);
-                list.add(obj);
+            rs = st.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            CancellableQuery.unregister(st);
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public List<DepartmentStats> findDepartmentStats() {
+        QueryTimer timer = QueryMetrics.start("SellerDao.findDepartmentStats");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(
+                    "SELECT department.Id, department.Name, COUNT(seller.Id) AS Sellers, "
+                            + "COALESCE(SUM(seller.BaseSalary), 0) AS TotalSalary, "
+                            + "COALESCE(AVG(seller.BaseSalary), 0) AS AverageSalary, "
+                            + "COALESCE(MIN(seller.BaseSalary), 0) AS MinSalary, "
+                            + "COALESCE(MAX(seller.BaseSalary), 0) AS MaxSalary "
+                            + "FROM department LEFT JOIN seller "
+                            + "ON seller.DepartmentId = department.Id "
+                            + "GROUP BY department.Id, department.Name "
+                            + "ORDER BY department.Name");
+            rs = st.executeQuery();
+
+            List<DepartmentStats> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(new DepartmentStats(
+                        DepartmentCache.canonicalize(rs.getInt(1), rs.getString(2)),
+                        rs.getInt("Sellers"),
+                        rs.getDouble("TotalSalary"),
+                        rs.getDouble("AverageSalary"),
+                        rs.getDouble("MinSalary"),
+                        rs.getDouble("MaxSalary")));
             }
+            timer.rows(list.size());
             return list;
         } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public double[] findSalaryPercentiles(double[] fractions) {
+        double[] result = new double[fractions.length];
+        Arrays.fill(result, Double.NaN);
+        if (fractions.length == 0) return result;
+        for (double fraction : fractions) {
+            if (fraction < 0 || fraction > 1) throw new IllegalArgumentException("Percentile out of range: " + fraction);
+        }
+
+        QueryTimer timer = QueryMetrics.start("SellerDao.findSalaryPercentiles");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            StringBuilder sql = new StringBuilder(
+                    "SELECT BaseSalary, SalaryRank, SalaryCount FROM ("
+                            + "SELECT BaseSalary, ROW_NUMBER() OVER (ORDER BY BaseSalary) AS SalaryRank, "
+                            + "COUNT(*) OVER () AS SalaryCount FROM seller) ranked "
+                            + "WHERE SalaryRank IN (");
+            for (int i = 0; i < fractions.length; i++) {
+                sql.append(i == 0 ? "" : ", ").append("GREATEST(1, CEIL(? * SalaryCount))");
+            }
+            sql.append(") ORDER BY SalaryRank");
+
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < fractions.length; i++) st.setDouble(i + 1, fractions[i]);
+            rs = st.executeQuery();
+
+            List<double[]> ranked = new ArrayList<>();
+            long count = 0;
+            while (rs.next()) {
+                ranked.add(new double[]{rs.getLong("SalaryRank"), rs.getDouble("BaseSalary")});
+                count = rs.getLong("SalaryCount");
+            }
+            timer.rows(ranked.size());
+            for (int i = 0; i < fractions.length && !ranked.isEmpty(); i++) {
+                long target = Math.max(1, (long) Math.ceil(fractions[i] * count));
+                double value = ranked.get(0)[1];
+                for (double[] row : ranked) {
+                    if (row[0] <= target) value = row[1];
+                }
+                result[i] = value;
+            }
+            return result;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public SortedMap<Integer, Integer> countByBirthYear() {
+        QueryTimer timer = QueryMetrics.start("SellerDao.countByBirthYear");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(
+                    "SELECT YEAR(BirthDate) AS BirthYear, COUNT(*) AS Sellers "
+                            + "FROM seller "
+                            + "GROUP BY YEAR(BirthDate) "
+                            + "ORDER BY YEAR(BirthDate)");
+            rs = st.executeQuery();
+
+            SortedMap<Integer, Integer> histogram = new TreeMap<>();
+            while (rs.next()) {
+                histogram.put(rs.getInt("BirthYear"), rs.getInt("Sellers"));
+            }
+            timer.rows(histogram.size());
+            return histogram;
+        } catch (SQLException e) {
+            timer.fail();
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    private void appendWhere(StringBuilder sql, List<Object> params, SellerFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getName() != null) {
+            conditions.add("seller.Name LIKE ? ESCAPE '!'");
+            params.add("%" + escapeLike(filter.getName()) + "%");
+        }
+        if (filter.getEmail() != null) {
+            conditions.add("seller.Email LIKE ? ESCAPE '!'");
+            params.add("%" + escapeLike(filter.getEmail()) + "%");
+        }
+        if (filter.getDepartment() != null) {
+            conditions.add("seller.DepartmentId = ?");
+            params.add(filter.getDepartment().getId());
+        }
+        if (filter.getMinSalary() != null) {
+            conditions.add("seller.BaseSalary >= ?");
+            params.add(filter.getMinSalary());
+        }
+        if (filter.getMaxSalary() != null) {
+            conditions.add("seller.BaseSalary <= ?");
+            params.add(filter.getMaxSalary());
+        }
+        if (filter.getBirthDateFrom() != null) {
+            conditions.add("seller.BirthDate >= ?");
+            params.add(filter.getBirthDateFrom());
+        }
+        if (filter.getBirthDateTo() != null) {
+            conditions.add("seller.BirthDate <= ?");
+            params.add(filter.getBirthDateTo());
+        }
+        if (!conditions.isEmpty()) sql.append("WHERE ").append(String.join(" AND ", conditions)).append(" ");
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static void bind(PreparedStatement st, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            Object value = params.get(i);
+            if (value instanceof LocalDate) st.setDate(i + 1, java.sql.Date.valueOf((LocalDate) value));
+            else if (value instanceof java.util.Date) st.setDate(i + 1, new java.sql.Date(((java.util.Date) value).getTime()));
+            else st.setObject(i + 1, value);
+        }
+    }
+
+    @Override
+    public BatchReport insertAll(Collection<Seller> sellers, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive.");
+        QueryTimer timer = QueryMetrics.start("SellerDao.insertAll");
+        long start = System.nanoTime();
+        int batches = 0;
+        Connection conn = null;
+        PreparedStatement st = null;
+        boolean managed = false;
+        try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
+            st = conn.prepareStatement(
+                    "INSERT INTO seller "
+                            + "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+                            + "VALUES "
+                            + "(?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+
+            List<Seller> chunk = new ArrayList<>(batchSize);
+            for (Seller obj : sellers) {
+                chunk.add(obj);
+                if (chunk.size() == batchSize) {
+                    insertChunk(conn, st, chunk, managed);
+                    batches++;
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(conn, st, chunk, managed);
+                batches++;
+            }
+            timer.rows(sellers.size());
+            return new BatchReport(sellers.size(), batches, System.nanoTime() - start);
+        } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            if (DB.isDataError(e)) throw new DbIntegrityException(e.getMessage());
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    private void insertChunk(Connection conn, PreparedStatement st, List<Seller> chunk, boolean managed) throws SQLException {
+        for (Seller obj : chunk) {
+            st.setString(1, obj.getName());
+            st.setString(2, obj.getEmail());
+            st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+            st.setDouble(4, obj.getBaseSalary());
+            st.setInt(5, obj.getDepartment().getId());
+            st.addBatch();
+        }
+        st.executeBatch();
+
+        int[] ids = new int[chunk.size()];
+        int count = 0;
+        ResultSet rs = st.getGeneratedKeys();
+        try {
+            while (rs.next() && count < ids.length) {
+                ids[count++] = rs.getInt(1);
+            }
+        } finally {
+            DB.closeResultSet(rs);
+        }
+        if (count != ids.length) {
+            throw new SQLException("Expected " + ids.length + " generated keys but received " + count + ".");
+        }
+        ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, ChangeRecord.Type.INSERTED, ids);
+        if (!managed) conn.commit();
+        for (int i = 0; i < ids.length; i++) {
+            chunk.get(i).setId(ids[i]);
+            chunk.get(i).setVersion(0);
+        }
+    }
+
+    @Override
+    public BatchReport updateAll(Collection<Seller> sellers, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive.");
+        QueryTimer timer = QueryMetrics.start("SellerDao.updateAll");
+        long start = System.nanoTime();
+        int batches = 0;
+        Connection conn = null;
+        PreparedStatement st = null;
+        boolean managed = false;
+        try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
+            st = conn.prepareStatement(
+                    "UPDATE seller "
+                            + "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1 "
+                            + "WHERE Id = ? AND Version = ?");
+
+            List<Seller> chunk = new ArrayList<>(batchSize);
+            for (Seller obj : sellers) {
+                chunk.add(obj);
+                if (chunk.size() == batchSize) {
+                    updateChunk(conn, st, chunk, managed);
+                    batches++;
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                updateChunk(conn, st, chunk, managed);
+                batches++;
+            }
+            timer.rows(sellers.size());
+            return new BatchReport(sellers.size(), batches, System.nanoTime() - start);
+        } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        } catch (DbException e) {
+            timer.fail();
+            throw e;
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    private void updateChunk(Connection conn, PreparedStatement st, List<Seller> chunk, boolean managed) throws SQLException {
+        for (Seller obj : chunk) {
+            if (obj.getVersion() == null) throw new SQLException("Seller " + obj.getId() + " has no version to update.");
+        }
+        for (Seller obj : chunk) {
+            st.setString(1, obj.getName());
+            st.setString(2, obj.getEmail());
+            st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
+            st.setDouble(4, obj.getBaseSalary());
+            st.setInt(5, obj.getDepartment().getId());
+            st.setInt(6, obj.getId());
+            st.setInt(7, obj.getVersion());
+            st.addBatch();
+        }
+        int[] counts = st.executeBatch();
+
+        List<Integer> conflicts = new ArrayList<>();
+        for (int i = 0; i < counts.length && i < chunk.size(); i++) {
+            if (counts[i] == 0) conflicts.add(chunk.get(i).getId());
+        }
+        if (!conflicts.isEmpty()) {
+            if (!managed) conn.rollback();
+            throw new DbConcurrencyException("Sellers " + conflicts + " were changed or removed by another user.");
+        }
+        int[] ids = new int[chunk.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = chunk.get(i).getId();
+        ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, ChangeRecord.Type.UPDATED, ids);
+        if (!managed) conn.commit();
+        for (Seller obj : chunk) {
+            obj.setVersion(obj.getVersion() + 1);
+        }
+    }
+
+    @Override
+    public int deleteByIds(Collection<Integer> ids, int chunkSize) {
+        return executeByIds("SellerDao.deleteByIds", "DELETE FROM seller WHERE Id IN ",
+                null, ids, chunkSize, ChangeRecord.Type.DELETED);
+    }
+
+    @Override
+    public int reassignDepartment(Collection<Integer> ids, Department department, int chunkSize) {
+        return executeByIds("SellerDao.reassignDepartment", "UPDATE seller SET DepartmentId = ?, Version = Version + 1 WHERE Id IN ",
+                department.getId(), ids, chunkSize, ChangeRecord.Type.UPDATED);
+    }
+
+    @Override
+    public int reassignDepartment(Department from, Department to) {
+        return executeForDepartment("SellerDao.reassignDepartment",
+                "UPDATE seller SET DepartmentId = ?, Version = Version + 1 WHERE DepartmentId = ?",
+                to.getId(), from.getId(), ChangeRecord.Type.UPDATED);
+    }
+
+    @Override
+    public int deleteByDepartment(Department department) {
+        return executeForDepartment("SellerDao.deleteByDepartment", "DELETE FROM seller WHERE DepartmentId = ?",
+                null, department.getId(), ChangeRecord.Type.DELETED);
+    }
+
+    private int executeForDepartment(String metric, String statement, Integer leadingParam, int departmentId, ChangeRecord.Type type) {
+        QueryTimer timer = QueryMetrics.start(metric);
+        Connection conn = null;
+        PreparedStatement st = null;
+        boolean managed = false;
+        try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
+            ChangeLogDaoJDBC.recordSellersOfDepartment(conn, type, departmentId);
+
+            st = conn.prepareStatement(statement);
+            int index = 1;
+            if (leadingParam != null) st.setInt(index++, leadingParam);
+            st.setInt(index, departmentId);
+            int rows = st.executeUpdate();
+            if (!managed) conn.commit();
+            timer.rows(rows);
+            return rows;
+        } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeStatement(st);
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    private static List<Integer> lockExisting(Connection conn, List<Integer> ids) throws SQLException {
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            st = conn.prepareStatement("SELECT Id FROM seller WHERE Id IN " + placeholders(ids.size()) + " FOR UPDATE");
+            for (int i = 0; i < ids.size(); i++) st.setInt(i + 1, ids.get(i));
+            rs = st.executeQuery();
+            List<Integer> found = new ArrayList<>(ids.size());
+            while (rs.next()) found.add(rs.getInt(1));
+            return found;
+        } finally {
+            DB.closeStatement(st);
+            DB.closeResultSet(rs);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private int executeByIds(String metric, String statement, Integer leadingParam, Collection<Integer> ids, int chunkSize, ChangeRecord.Type type) {
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive.");
+        if (ids.isEmpty()) return 0;
+        QueryTimer timer = QueryMetrics.start(metric);
+        Connection conn = null;
+        boolean managed = false;
+        try {
+            conn = router.getWriteConnection();
+            managed = !conn.getAutoCommit();
+            if (!managed) conn.setAutoCommit(false);
+
+            List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            int rows = 0;
+            for (int from = 0; from < distinct.size(); from += chunkSize) {
+                List<Integer> chunk = lockExisting(conn, distinct.subList(from, Math.min(distinct.size(), from + chunkSize)));
+                if (chunk.isEmpty()) continue;
+                PreparedStatement st = conn.prepareStatement(statement + placeholders(chunk.size()));
+                try {
+                    int index = 1;
+                    if (leadingParam != null) st.setInt(index++, leadingParam);
+                    for (Integer id : chunk) st.setInt(index++, id);
+                    rows += st.executeUpdate();
+                } finally {
+                    DB.closeStatement(st);
+                }
+                ChangeLogDaoJDBC.record(conn, ChangeRecord.SELLER, type, chunk.stream().mapToInt(Integer::intValue).toArray());
+            }
+            if (!managed) conn.commit();
+            timer.rows(rows);
+            return rows;
+        } catch (SQLException e) {
+            timer.fail();
+            if (!managed) DB.rollback(conn);
+            throw new DbException(e.getMessage());
+        } finally {
+            DB.closeConnection(conn);
+            timer.stop();
+        }
+    }
+
+    @Override
+    public long streamAll(int fetchSize, Consumer<Seller> action) {
+        QueryTimer timer = QueryMetrics.start("SellerDao.streamAll");
+        Connection conn = null;
+        PreparedStatement st = null;
+        ResultSet rs = null;
+        try {
+            conn = router.getReadConnection();
+            st = conn.prepareStatement(
+                    "SELECT seller.*,department.Name as DepName "
+                            + "FROM seller INNER JOIN department "
+                            + "ON seller.DepartmentId = department.Id "
+                            + "ORDER BY Name",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(fetchSize);
+
+            rs = st.executeQuery();
+
+            long count = 0;
+            SellerRowMapper mapper = SellerRowMapper.of(rs);
+            while (rs.next()) {
+                action.accept(mapper.map(rs));
+                count++;
+            }
+            timer.rows(count);
+            return count;
+        } catch (SQLException e) {
+            timer.fail();
             throw new DbException(e.getMessage());
         } finally {
             DB.closeStatement(st);
             DB.closeResultSet(rs);
+            DB.closeConnection(conn);
+            timer.stop();
         }
     }
 }
@@ -0,0 +1,65 @@
+package model.dao.impl;
+
+import db.DbException;
+import model.dao.DepartmentCache;
+import model.entities.Department;
+import model.entities.Seller;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Date;
+
+class SellerRowMapper {
+
+    private final int id;
+    private final int name;
+    private final int email;
+    private final int birthDate;
+    private final int baseSalary;
+    private final int version;
+    private final int departmentId;
+    private final int depName;
+
+    private SellerRowMapper(ResultSetMetaData metaData) throws SQLException {
+        this.id = indexOf(metaData, "Id");
+        this.name = indexOf(metaData, "Name");
+        this.email = indexOf(metaData, "Email");
+        this.birthDate = indexOf(metaData, "BirthDate");
+        this.baseSalary = indexOf(metaData, "BaseSalary");
+        this.version = indexOf(metaData, "Version");
+        this.departmentId = indexOf(metaData, "DepartmentId");
+        this.depName = indexOf(metaData, "DepName");
+    }
+
+    static SellerRowMapper of(ResultSet rs) throws SQLException {
+        return new SellerRowMapper(rs.getMetaData());
+    }
+
+    Seller map(ResultSet rs) throws SQLException {
+        Seller obj = new Seller();
+        obj.setId(rs.getInt(id));
+        obj.setName(rs.getString(name));
+        obj.setEmail(rs.getString(email));
+        obj.setBaseSalary(rs.getDouble(baseSalary));
+        obj.setBirthDate(toDate(rs.getDate(birthDate)));
+        obj.setVersion(rs.getInt(version));
+        obj.setDepartment(mapDepartment(rs));
+        return obj;
+    }
+
+    Department mapDepartment(ResultSet rs) throws SQLException {
+        return DepartmentCache.canonicalize(rs.getInt(departmentId), rs.getString(depName));
+    }
+
+    private static Date toDate(java.sql.Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    private static int indexOf(ResultSetMetaData metaData, String label) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (label.equalsIgnoreCase(metaData.getColumnLabel(i))) return i;
+        }
+        throw new DbException("Column '" + label + "' not found in result set.");
+    }
+}
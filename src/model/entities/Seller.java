@@ -12,6 +12,7 @@ public class Seller implements Serializable {
     private Double baseSalary = 0.0;
 
     private Department department;
+    private Integer version;
 
     public Seller() {
     }
@@ -73,6 +74,14 @@ public class Seller implements Serializable {
         this.department = department;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
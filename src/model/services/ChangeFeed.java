@@ -0,0 +1,139 @@
+package model.services;
+
+import db.DB;
+import db.DbException;
+import model.dao.ChangeLogDao;
+import model.dao.ChangeRecord;
+import model.dao.DaoFactory;
+import model.dao.DepartmentCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class ChangeFeed {
+
+    private static final System.Logger LOGGER = System.getLogger(ChangeFeed.class.getName());
+
+    public static final int BATCH_LIMIT = 500;
+    private static final long PURGE_INTERVAL_MILLIS = 60 * 60 * 1000;
+
+    private static final Map<String, List<Consumer<List<ChangeRecord>>>> listeners = new ConcurrentHashMap<>();
+    private static final Map<Long, Long> gaps = new HashMap<>();
+    private static ScheduledExecutorService poller;
+    private static ChangeLogDao dao;
+    private static long gapTimeoutMillis;
+    private static long lastId = -1;
+
+    public static void subscribe(String entityType, Consumer<List<ChangeRecord>> listener) {
+        listeners.computeIfAbsent(entityType, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public static void unsubscribe(String entityType, Consumer<List<ChangeRecord>> listener) {
+        List<Consumer<List<ChangeRecord>>> list = listeners.get(entityType);
+        if (list != null) list.remove(listener);
+    }
+
+    public static synchronized void start() {
+        if (poller != null) return;
+        Properties props = DB.loadProperties();
+        long pollMillis = longProperty(props, "changeFeed.pollMs", 1000);
+        if (pollMillis <= 0) return;
+        gapTimeoutMillis = longProperty(props, "changeFeed.gapTimeoutMs", 10000);
+        long retentionHours = longProperty(props, "changeFeed.retentionHours", 24);
+
+        dao = DaoFactory.createChangeLogDao();
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(ChangeFeed::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+        if (retentionHours > 0) {
+            poller.scheduleWithFixedDelay(() -> purge((int) retentionHours), 0, PURGE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (poller == null) return;
+        poller.shutdownNow();
+        poller = null;
+    }
+
+    private static void poll() {
+        try {
+            if (lastId < 0) {
+                lastId = dao.findLastId();
+                return;
+            }
+            long now = System.currentTimeMillis();
+            gaps.values().removeIf(seen -> now - seen > gapTimeoutMillis);
+            List<ChangeRecord> records = dao.findAfter(lastId, new ArrayList<>(gaps.keySet()), BATCH_LIMIT);
+            for (ChangeRecord record : records) {
+                gaps.remove(record.getId());
+                if (record.getId() <= lastId) continue;
+                for (long id = lastId + 1; id < record.getId() && gaps.size() < BATCH_LIMIT; id++) gaps.put(id, now);
+                lastId = record.getId();
+            }
+            dispatch(records);
+        } catch (DbException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Change feed poll failed: " + e.getMessage());
+        }
+    }
+
+    private static void dispatch(List<ChangeRecord> records) {
+        Map<String, Map<Integer, ChangeRecord>> byType = new HashMap<>();
+        for (ChangeRecord record : records) {
+            if (record.isLocal()) continue;
+            Map<Integer, ChangeRecord> changes = byType.computeIfAbsent(record.getEntityType(), key -> new LinkedHashMap<>());
+            ChangeRecord previous = changes.get(record.getEntityId());
+            if (previous != null && previous.getType() == ChangeRecord.Type.INSERTED) {
+                if (record.getType() == ChangeRecord.Type.DELETED) changes.remove(record.getEntityId());
+                continue;
+            }
+            changes.put(record.getEntityId(), record);
+        }
+        if (byType.containsKey(ChangeRecord.DEPARTMENT)) DepartmentCache.invalidate();
+        if (!byType.isEmpty()) SellerAnalyticsService.invalidate();
+
+        for (Map.Entry<String, Map<Integer, ChangeRecord>> entry : byType.entrySet()) {
+            if (entry.getValue().isEmpty()) continue;
+            List<ChangeRecord> changes = List.copyOf(entry.getValue().values());
+            for (Consumer<List<ChangeRecord>> listener : listeners.getOrDefault(entry.getKey(), List.of())) {
+                try {
+                    listener.accept(changes);
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Change feed listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void purge(int retentionHours) {
+        try {
+            int rows = dao.deleteOlderThan(retentionHours);
+            if (rows > 0) LOGGER.log(System.Logger.Level.INFO, "Purged " + rows + " change log entries.");
+        } catch (DbException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Change log purge failed: " + e.getMessage());
+        }
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new DbException("Property '" + key + "' must be an integer: " + value);
+        }
+    }
+}
@@ -1,24 +1,100 @@
 package model.services;
 
 import model.dao.DaoFactory;
+import model.dao.DepartmentCache;
 import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.dao.SellerFilter;
 import model.entities.Department;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class DepartmentService {
+    public static final int STREAM_FETCH_SIZE = 1000;
+    public static final int PICKER_LIMIT = 50;
+
+    public enum DeleteMode {
+        RESTRICT, REASSIGN_SELLERS, DELETE_SELLERS
+    }
+
     DepartmentDao dao = DaoFactory.createDepartmentDao();
+    SellerDao sellerDao = DaoFactory.createSellerDao();
 
     public List<Department> findAll() {
-        return dao.findAll();
+        return DepartmentCache.findAll(dao::findAll);
+    }
+
+    public List<Department> findByNamePrefix(String prefix) {
+        return dao.findByNamePrefix(prefix == null ? "" : prefix.trim(), PICKER_LIMIT);
     }
 
     public void saveOrUpdate(Department department) {
         if (department.getId() == null) dao.insert(department);
         else dao.update(department);
+        UnitOfWork.afterCommit(() -> DepartmentCache.put(department));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
     }
 
     public void remove(Department department) {
-        dao.deleteById(department.getId());
+        remove(department, DeleteMode.RESTRICT, null);
+    }
+
+    public void remove(Department department, DeleteMode mode, Department target) {
+        if (mode == DeleteMode.REASSIGN_SELLERS && (target == null || target.getId() == null || target.getId().equals(department.getId()))) {
+            throw new IllegalArgumentException("Sellers must be moved to another saved department.");
+        }
+        UnitOfWork.run(() -> {
+            SellerSearchIndex searchIndex = ServiceFactory.getSellerSearchIndex();
+            if (mode == DeleteMode.REASSIGN_SELLERS) {
+                sellerDao.reassignDepartment(department, target);
+                UnitOfWork.afterCommit(() -> searchIndex.reassignDepartment(department.getId(), target.getId()));
+            } else if (mode == DeleteMode.DELETE_SELLERS) {
+                sellerDao.deleteByDepartment(department);
+                UnitOfWork.afterCommit(() -> searchIndex.removeDepartment(department.getId()));
+            }
+            dao.deleteById(department.getId());
+            UnitOfWork.afterCommit(() -> DepartmentCache.remove(department.getId()));
+            UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        });
+    }
+
+    public int countSellers(Department department) {
+        SellerFilter filter = new SellerFilter();
+        filter.setDepartment(department);
+        return sellerDao.count(filter);
+    }
+
+    public void invalidateCache() {
+        DepartmentCache.invalidate();
+    }
+
+    public long streamAll(Consumer<Department> action) {
+        return dao.streamAll(STREAM_FETCH_SIZE, action);
+    }
+
+    public CompletableFuture<List<Department>> findAllAsync() {
+        return ServiceExecutor.supplyCancellable(this::findAll);
+    }
+
+    public CompletableFuture<List<Department>> findByNamePrefixAsync(String prefix) {
+        return ServiceExecutor.supplyAsync(() -> findByNamePrefix(prefix));
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Department department) {
+        return ServiceExecutor.runAsync(() -> saveOrUpdate(department));
+    }
+
+    public CompletableFuture<Void> removeAsync(Department department) {
+        return ServiceExecutor.runAsync(() -> remove(department));
+    }
+
+    public CompletableFuture<Void> removeAsync(Department department, DeleteMode mode, Department target) {
+        return ServiceExecutor.runAsync(() -> remove(department, mode, target));
+    }
+
+    public CompletableFuture<Integer> countSellersAsync(Department department) {
+        return ServiceExecutor.supplyAsync(() -> countSellers(department));
     }
 }
@@ -0,0 +1,42 @@
+package model.services;
+
+public class ImportReport {
+
+    private final long rowsRead;
+    private final long imported;
+    private final long rejected;
+    private final long elapsedNanos;
+
+    public ImportReport(long rowsRead, long imported, long rejected, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d imported, %d rejected in %d ms (%.0f rows/s)",
+                rowsRead, imported, rejected, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,55 @@
+package model.services;
+
+import model.dao.DepartmentStats;
+
+import java.util.List;
+import java.util.SortedMap;
+
+public class SellerAnalytics {
+
+    private final List<DepartmentStats> departmentStats;
+    private final double[] percentiles;
+    private final double[] salaryPercentiles;
+    private final SortedMap<Integer, Integer> birthYears;
+    private final long loadedAt = System.currentTimeMillis();
+
+    public SellerAnalytics(List<DepartmentStats> departmentStats, double[] percentiles, double[] salaryPercentiles,
+                           SortedMap<Integer, Integer> birthYears) {
+        this.departmentStats = List.copyOf(departmentStats);
+        this.percentiles = percentiles.clone();
+        this.salaryPercentiles = salaryPercentiles.clone();
+        this.birthYears = birthYears;
+    }
+
+    public List<DepartmentStats> getDepartmentStats() {
+        return departmentStats;
+    }
+
+    public double[] getPercentiles() {
+        return percentiles.clone();
+    }
+
+    public double[] getSalaryPercentiles() {
+        return salaryPercentiles.clone();
+    }
+
+    public SortedMap<Integer, Integer> getBirthYears() {
+        return birthYears;
+    }
+
+    public int getTotalSellers() {
+        int total = 0;
+        for (DepartmentStats stats : departmentStats) total += stats.getSellers();
+        return total;
+    }
+
+    public double getTotalSalary() {
+        double total = 0;
+        for (DepartmentStats stats : departmentStats) total += stats.getTotalSalary();
+        return total;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package model.services;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+public class SellerAnalyticsService {
+
+    public static final double[] PERCENTILES = {0.25, 0.5, 0.75, 0.9, 0.99};
+
+    private static volatile SellerAnalytics cached = null;
+    private static long generation = 0;
+
+    SellerDao dao = DaoFactory.createSellerDao();
+
+    public SellerAnalytics getAnalytics() {
+        SellerAnalytics analytics = cached;
+        if (analytics != null) return analytics;
+
+        long current;
+        synchronized (SellerAnalyticsService.class) {
+            current = generation;
+        }
+        analytics = new SellerAnalytics(
+                dao.findDepartmentStats(),
+                PERCENTILES,
+                dao.findSalaryPercentiles(PERCENTILES),
+                Collections.unmodifiableSortedMap(dao.countByBirthYear()));
+        synchronized (SellerAnalyticsService.class) {
+            if (generation == current) cached = analytics;
+        }
+        return analytics;
+    }
+
+    public static synchronized void invalidate() {
+        generation++;
+        cached = null;
+    }
+
+    public CompletableFuture<SellerAnalytics> getAnalyticsAsync() {
+        return ServiceExecutor.supplyAsync(this::getAnalytics);
+    }
+}
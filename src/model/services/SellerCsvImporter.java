@@ -0,0 +1,250 @@
+package model.services;
+
+import db.DbIntegrityException;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class SellerCsvImporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    private static final String[] COLUMNS = {"name", "email", "birthdate", "basesalary", "department"};
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ISO_LOCAL_DATE, DateTimeFormatter.ofPattern("dd/MM/yyyy")};
+
+    private final SellerService sellerService;
+    private final DepartmentService departmentService;
+    private volatile boolean cancelled = false;
+
+    public SellerCsvImporter(SellerService sellerService, DepartmentService departmentService) {
+        this.sellerService = sellerService;
+        this.departmentService = departmentService;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public CompletableFuture<ImportReport> importFileAsync(Path source, Path rejects, Consumer<ImportReport> progress) {
+        return ServiceExecutor.supplyAsync(() -> importFile(source, rejects, progress));
+    }
+
+    public ImportReport importFile(Path source, Path rejects, Consumer<ImportReport> progress) {
+        char delimiter = source.getFileName().toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        Map<String, Department> departments = new HashMap<>();
+        for (Department dep : departmentService.findAll()) {
+            departments.put(dep.getName().trim().toLowerCase(), dep);
+        }
+
+        long start = System.nanoTime();
+        long lastProgress = start;
+        long rowsRead = 0;
+        long imported = 0;
+        long rejected = 0;
+        int batchSize = sellerService.getBatchSize();
+        List<Seller> chunk = new ArrayList<>(batchSize);
+        List<String> chunkLines = new ArrayList<>(batchSize);
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE), BUFFER_SIZE);
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+
+            StringBuilder raw = new StringBuilder();
+            List<String> fields = new ArrayList<>();
+            if (!readRecord(reader, delimiter, raw, fields)) return new ImportReport(0, 0, 0, System.nanoTime() - start);
+
+            int[] columns = mapHeader(fields);
+            boolean pendingRecord = columns == null;
+            if (pendingRecord) columns = new int[]{0, 1, 2, 3, 4};
+            else writeReject(rejectWriter, raw, delimiter, "Error");
+
+            while (!cancelled && (pendingRecord || readRecord(reader, delimiter, raw, fields))) {
+                pendingRecord = false;
+                rowsRead++;
+                try {
+                    chunk.add(toSeller(fields, columns, departments));
+                    chunkLines.add(raw.toString());
+                } catch (ValidationException e) {
+                    writeReject(rejectWriter, raw, delimiter, describe(e));
+                    rejected++;
+                }
+
+                if (chunk.size() >= batchSize) {
+                    int written = flush(chunk, chunkLines, rejectWriter, delimiter);
+                    imported += written;
+                    rejected += chunk.size() - written;
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+
+                long now = System.nanoTime();
+                if (progress != null && now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    progress.accept(new ImportReport(rowsRead, imported, rejected, now - start));
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                int written = flush(chunk, chunkLines, rejectWriter, delimiter);
+                imported += written;
+                rejected += chunk.size() - written;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ImportReport report = new ImportReport(rowsRead, imported, rejected, System.nanoTime() - start);
+        if (progress != null) progress.accept(report);
+        return report;
+    }
+
+    private int flush(List<Seller> chunk, List<String> chunkLines, BufferedWriter rejectWriter, char delimiter) throws IOException {
+        try {
+            sellerService.insertAll(chunk);
+            return chunk.size();
+        } catch (DbIntegrityException e) {
+            if (chunk.size() == 1) {
+                writeReject(rejectWriter, chunkLines.get(0), delimiter, e.getMessage());
+                return 0;
+            }
+            int half = chunk.size() / 2;
+            return flush(chunk.subList(0, half), chunkLines.subList(0, half), rejectWriter, delimiter)
+                    + flush(chunk.subList(half, chunk.size()), chunkLines.subList(half, chunk.size()), rejectWriter, delimiter);
+        }
+    }
+
+    private Seller toSeller(List<String> fields, int[] columns, Map<String, Department> departments) {
+        ValidationException exception = new ValidationException("Validation error.");
+        int required = Arrays.stream(columns).max().getAsInt() + 1;
+        if (fields.size() < required) {
+            exception.addError("row", "Expected " + required + " columns but found " + fields.size() + ".");
+            throw exception;
+        }
+
+        Seller seller = new Seller();
+        seller.setName(fields.get(columns[0]).trim());
+        seller.setEmail(fields.get(columns[1]).trim());
+
+        String birthDate = fields.get(columns[2]).trim();
+        if (!birthDate.isEmpty()) {
+            LocalDate date = parseDate(birthDate);
+            if (date == null) exception.addError("birthDate", "Invalid date: " + birthDate);
+            else seller.setBirthDate(Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+
+        String baseSalary = fields.get(columns[3]).trim();
+        if (!baseSalary.isEmpty()) {
+            try {
+                seller.setBaseSalary(Double.parseDouble(baseSalary));
+            } catch (NumberFormatException e) {
+                exception.addError("baseSalary", "Invalid number: " + baseSalary);
+            }
+        } else {
+            seller.setBaseSalary(null);
+        }
+
+        String departmentName = fields.get(columns[4]).trim();
+        Department department = departments.get(departmentName.toLowerCase());
+        if (department == null) exception.addError("department", "Unknown department: " + departmentName);
+        seller.setDepartment(department);
+
+        try {
+            SellerService.validate(seller);
+        } catch (ValidationException e) {
+            e.getErrors().forEach(exception.getErrors()::putIfAbsent);
+        }
+        if (exception.getErrors().size() > 0) throw exception;
+        return seller;
+    }
+
+    private static LocalDate parseDate(String text) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text, format);
+            } catch (DateTimeParseException e) {
+                // try the next accepted format
+            }
+        }
+        return null;
+    }
+
+    private static int[] mapHeader(List<String> fields) {
+        int[] columns = new int[COLUMNS.length];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).replace("\uFEFF", "").replace(" ", "").trim().toLowerCase();
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (COLUMNS[c].equals(name)) columns[c] = i;
+            }
+        }
+        for (int column : columns) {
+            if (column < 0) return null;
+        }
+        return columns;
+    }
+
+    private static boolean readRecord(BufferedReader reader, char delimiter, StringBuilder raw, List<String> fields) throws IOException {
+        raw.setLength(0);
+        fields.clear();
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) line = reader.readLine();
+        if (line == null) return false;
+
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            raw.append(line);
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') field.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                    else quoted = false;
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted || (line = reader.readLine()) == null) break;
+            field.append('\n');
+            raw.append('\n');
+        }
+        fields.add(field.toString());
+        return true;
+    }
+
+    private static void writeReject(BufferedWriter writer, CharSequence raw, char delimiter, String reason) throws IOException {
+        writer.append(raw).append(delimiter).append('"').append(reason.replace("\"", "\"\"")).append('"');
+        writer.newLine();
+    }
+
+    private static String describe(ValidationException e) {
+        StringJoiner joiner = new StringJoiner("; ");
+        e.getErrors().forEach((field, message) -> joiner.add(field + ": " + message));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,513 @@
+package model.services;
+
+import db.DbException;
+import model.dao.ChangeRecord;
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+public class SellerSearchIndex {
+
+    private static final System.Logger LOGGER = System.getLogger(SellerSearchIndex.class.getName());
+
+    public static final int DEFAULT_LIMIT = 10;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+    private static final char SEPARATOR = '\u0002';
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    public static class Hit {
+        private final int id;
+        private final String name;
+        private final String email;
+
+        private Hit(int id, String name, String email) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public String toString() {
+            return name + " <" + email + ">";
+        }
+    }
+
+    private static class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) return;
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+
+    private static class Table {
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private final Map<Integer, Integer> slotById = new HashMap<>();
+        private int[] ids;
+        private int[] departmentIds;
+        private String[] names;
+        private String[] emails;
+        private String[] nameKeys;
+        private String[] emailKeys;
+        private int size;
+
+        private Table(int capacity) {
+            ids = new int[capacity];
+            departmentIds = new int[capacity];
+            names = new String[capacity];
+            emails = new String[capacity];
+            nameKeys = new String[capacity];
+            emailKeys = new String[capacity];
+        }
+
+        private void add(int id, int departmentId, String name, String email, String nameKey, String emailKey) {
+            if (size == ids.length) grow(size * 2);
+            int slot = size++;
+            ids[slot] = id;
+            departmentIds[slot] = departmentId;
+            names[slot] = name;
+            emails[slot] = email;
+            nameKeys[slot] = nameKey;
+            emailKeys[slot] = emailKey;
+            index(nameKey, slot);
+            index(emailKey, slot);
+            slotById.put(id, slot);
+        }
+
+        private void copy(Table from, int slot) {
+            add(from.ids[slot], from.departmentIds[slot], from.names[slot], from.emails[slot],
+                    from.nameKeys[slot], from.emailKeys[slot]);
+        }
+
+        private void index(String key, int slot) {
+            String padded = String.valueOf(SEPARATOR).repeat(2) + key;
+            for (long trigram : trigrams(padded)) postings.computeIfAbsent(trigram, k -> new Postings()).add(slot);
+            for (int i = 1; i < key.length(); i++) {
+                if (key.charAt(i - 1) == SEPARATOR && key.charAt(i) != SEPARATOR) {
+                    postings.computeIfAbsent(trigram(SEPARATOR, SEPARATOR, key.charAt(i)), k -> new Postings()).add(slot);
+                }
+            }
+        }
+
+        private void tombstone(Integer id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) return;
+            names[slot] = null;
+            emails[slot] = null;
+            nameKeys[slot] = null;
+            emailKeys[slot] = null;
+        }
+
+        private boolean isSparse() {
+            return size >= MIN_COMPACT_SLOTS && slotById.size() * 2 <= size;
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            departmentIds = Arrays.copyOf(departmentIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            nameKeys = Arrays.copyOf(nameKeys, capacity);
+            emailKeys = Arrays.copyOf(emailKeys, capacity);
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Integer> removedWhileLoading = new HashSet<>();
+    private Table table = new Table(MIN_COMPACT_SLOTS);
+    private Set<Integer> touchedWhileCompacting;
+    private boolean loading;
+    private volatile boolean loaded;
+    private CompletableFuture<Long> pendingLoad;
+
+    SellerDao dao = DaoFactory.createSellerDao();
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized CompletableFuture<Long> loadAsync() {
+        if (pendingLoad == null) ChangeFeed.subscribe(ChangeRecord.SELLER, this::onRemoteChanges);
+        if (pendingLoad == null || pendingLoad.isCompletedExceptionally()) pendingLoad = ServiceExecutor.supplyAsync(this::load);
+        return pendingLoad;
+    }
+
+    private long load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Seller> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            long rows = dao.streamAll(SellerService.STREAM_FETCH_SIZE, seller -> {
+                batch.add(seller);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    addLoaded(batch);
+                    batch.clear();
+                }
+            });
+            addLoaded(batch);
+            loaded = true;
+            LOGGER.log(System.Logger.Level.INFO, "Indexed " + rows + " sellers in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return rows;
+        } catch (DbException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Search index not loaded: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                removedWhileLoading.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void addLoaded(List<Seller> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Seller seller : batch) {
+                if (table.slotById.containsKey(seller.getId()) || removedWhileLoading.contains(seller.getId())) continue;
+                add(seller);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Seller seller) {
+        putAll(List.of(seller));
+    }
+
+    public void putAll(Collection<Seller> sellers) {
+        lock.writeLock().lock();
+        try {
+            for (Seller seller : sellers) {
+                if (seller.getId() == null) continue;
+                table.tombstone(seller.getId());
+                add(seller);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        removeAll(List.of(id));
+    }
+
+    public void removeAll(Collection<Integer> sellerIds) {
+        lock.writeLock().lock();
+        try {
+            for (Integer id : sellerIds) {
+                table.tombstone(id);
+                touch(id);
+                if (loading) removedWhileLoading.add(id);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDepartment(int departmentId) {
+        List<Integer> removed = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            for (int slot = 0; slot < t.size; slot++) {
+                if (t.names[slot] != null && t.departmentIds[slot] == departmentId) removed.add(t.ids[slot]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        removeAll(removed);
+    }
+
+    public void reassignDepartment(Collection<Integer> sellerIds, int departmentId) {
+        lock.writeLock().lock();
+        try {
+            for (Integer id : sellerIds) {
+                Integer slot = table.slotById.get(id);
+                if (slot != null) table.departmentIds[slot] = departmentId;
+                touch(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void reassignDepartment(int fromDepartmentId, int toDepartmentId) {
+        lock.writeLock().lock();
+        try {
+            Table t = table;
+            for (int slot = 0; slot < t.size; slot++) {
+                if (t.departmentIds[slot] != fromDepartmentId) continue;
+                t.departmentIds[slot] = toDepartmentId;
+                touch(t.ids[slot]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        String key = normalize(query == null ? "" : query.trim());
+        if (key.isEmpty() || limit < 1) return List.of();
+        String padded = key.length() < 3 ? String.valueOf(SEPARATOR).repeat(3 - key.length()) + key : key;
+        boolean wordPrefix = key.length() < 3;
+
+        lock.readLock().lock();
+        try {
+            Table t = table;
+            List<List<Hit>> ranks = new ArrayList<>();
+            for (int i = 0; i < 5; i++) ranks.add(new ArrayList<>());
+            Postings candidates = shortest(t, trigrams(padded));
+            for (int i = 0; candidates != null && i < candidates.size; i++) {
+                int slot = candidates.slots[i];
+                if (t.names[slot] == null) continue;
+                int rank = rank(t, slot, key, wordPrefix);
+                if (rank < 0) continue;
+                List<Hit> hits = ranks.get(rank);
+                if (hits.size() < limit) hits.add(hit(t, slot));
+                if (rank <= 1 && ranks.get(0).size() + ranks.get(1).size() >= limit) break;
+            }
+            if (key.length() >= 4 && count(ranks) < limit) fuzzy(t, key, limit, ranks.get(4));
+
+            List<Hit> result = new ArrayList<>(limit);
+            for (List<Hit> hits : ranks) {
+                for (Hit hit : hits) {
+                    if (result.size() == limit) return result;
+                    result.add(hit);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int rank(Table t, int slot, String key, boolean wordPrefix) {
+        String name = t.nameKeys[slot];
+        String email = t.emailKeys[slot];
+        if (name.startsWith(key)) return 0;
+        if (name.contains(SEPARATOR + key)) return 1;
+        if (email.startsWith(key) || email.contains(SEPARATOR + key)) return 2;
+        if (wordPrefix) return -1;
+        return name.contains(key) || email.contains(key) ? 3 : -1;
+    }
+
+    private static void fuzzy(Table t, String key, int limit, List<Hit> hits) {
+        int maxEdits = key.length() >= 8 ? 2 : 1;
+        int pieces = maxEdits + 1;
+        BitSet seen = new BitSet(t.size);
+        for (int p = 0; p < pieces && hits.size() < limit; p++) {
+            int from = p * key.length() / pieces;
+            int to = (p + 1) * key.length() / pieces;
+            if (to - from < 3 && p == 0) to = from + 3;
+            else if (to - from < 3) from = to - 3;
+            Postings candidates = shortest(t, trigrams(key.substring(from, to)));
+            for (int i = 0; candidates != null && i < candidates.size && hits.size() < limit; i++) {
+                int slot = candidates.slots[i];
+                if (seen.get(slot) || t.names[slot] == null) continue;
+                seen.set(slot);
+                if (rank(t, slot, key, false) >= 0) continue;
+                if (withinEdits(t.nameKeys[slot], key, maxEdits) || withinEdits(t.emailKeys[slot], key, maxEdits)) hits.add(hit(t, slot));
+            }
+        }
+    }
+
+    private static boolean withinEdits(String text, String pattern, int maxEdits) {
+        int m = pattern.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) previous[j] = j;
+        if (previous[m] <= maxEdits) return true;
+        for (int i = 1; i <= text.length(); i++) {
+            current[0] = 0;
+            for (int j = 1; j <= m; j++) {
+                int cost = text.charAt(i - 1) == pattern.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            if (current[m] <= maxEdits) return true;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return false;
+    }
+
+    private static Postings shortest(Table t, long[] keys) {
+        Postings result = null;
+        for (long trigram : keys) {
+            Postings list = t.postings.get(trigram);
+            if (list == null) return null;
+            if (result == null || list.size < result.size) result = list;
+        }
+        return result;
+    }
+
+    private static int count(List<List<Hit>> ranks) {
+        int total = 0;
+        for (List<Hit> hits : ranks) total += hits.size();
+        return total;
+    }
+
+    private static Hit hit(Table t, int slot) {
+        return new Hit(t.ids[slot], t.names[slot], t.emails[slot]);
+    }
+
+    private void add(Seller seller) {
+        int departmentId = seller.getDepartment() == null || seller.getDepartment().getId() == null ? 0 : seller.getDepartment().getId();
+        String name = seller.getName() == null ? "" : seller.getName();
+        String email = seller.getEmail() == null ? "" : seller.getEmail();
+        table.add(seller.getId(), departmentId, name, email, normalize(name), normalize(email));
+        touch(seller.getId());
+    }
+
+    private void touch(Integer id) {
+        if (touchedWhileCompacting != null) touchedWhileCompacting.add(id);
+    }
+
+    private void compactIfSparse() {
+        if (loading || touchedWhileCompacting != null || !table.isSparse()) return;
+        touchedWhileCompacting = new HashSet<>();
+        ServiceExecutor.runAsync(this::compact);
+    }
+
+    private void compact() {
+        long start = System.nanoTime();
+        Table next;
+        try {
+            Table live;
+            lock.readLock().lock();
+            try {
+                Table t = table;
+                live = new Table(Math.max(MIN_COMPACT_SLOTS, t.slotById.size()));
+                for (int slot = 0; slot < t.size; slot++) {
+                    if (t.names[slot] == null) continue;
+                    live.ids[live.size] = t.ids[slot];
+                    live.departmentIds[live.size] = t.departmentIds[slot];
+                    live.names[live.size] = t.names[slot];
+                    live.emails[live.size] = t.emails[slot];
+                    live.nameKeys[live.size] = t.nameKeys[slot];
+                    live.emailKeys[live.size] = t.emailKeys[slot];
+                    live.size++;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            next = new Table(live.ids.length);
+            for (int slot = 0; slot < live.size; slot++) next.copy(live, slot);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                touchedWhileCompacting = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Integer id : touchedWhileCompacting) {
+                next.tombstone(id);
+                Integer slot = table.slotById.get(id);
+                if (slot != null) next.copy(table, slot);
+            }
+            table = next;
+            touchedWhileCompacting = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.log(System.Logger.Level.DEBUG, "Compacted search index to " + next.slotById.size() + " sellers in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) return new long[0];
+        long[] result = new long[text.length() - 2];
+        int size = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            long trigram = trigram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+            boolean seen = false;
+            for (int j = 0; j < size && !seen; j++) seen = result[j] == trigram;
+            if (!seen) result[size++] = trigram;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    static String normalize(String text) {
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase();
+        StringBuilder key = new StringBuilder(plain.length());
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            key.append(Character.isLetterOrDigit(c) ? c : SEPARATOR);
+        }
+        return key.toString();
+    }
+
+    private void onRemoteChanges(List<ChangeRecord> changes) {
+        List<Integer> deleted = new ArrayList<>();
+        List<Integer> changed = new ArrayList<>();
+        for (ChangeRecord change : changes) {
+            if (change.getType() == ChangeRecord.Type.DELETED) deleted.add(change.getEntityId());
+            else changed.add(change.getEntityId());
+        }
+        if (!deleted.isEmpty()) removeAll(deleted);
+        if (changed.isEmpty()) return;
+        ServiceExecutor.runAsync(() -> {
+            try {
+                List<Seller> sellers = dao.findByIds(changed, SellerService.DEFAULT_BATCH_SIZE);
+                Set<Integer> missing = new HashSet<>(changed);
+                for (Seller seller : sellers) missing.remove(seller.getId());
+                putAll(sellers);
+                if (!missing.isEmpty()) removeAll(missing);
+            } catch (DbException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Search index refresh failed: " + e.getMessage());
+            }
+        });
+    }
+}
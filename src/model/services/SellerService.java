@@ -1,24 +1,213 @@
 package model.services;
 
+import model.dao.BatchReport;
 import model.dao.DaoFactory;
 import model.dao.SellerDao;
+import model.dao.SellerFilter;
+import model.entities.Department;
 import model.entities.Seller;
+import model.exceptions.ValidationException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class SellerService {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int NAME_MAX_LENGTH = 70;
+    public static final int EMAIL_MAX_LENGTH = 40;
+    public static final int STREAM_FETCH_SIZE = 1000;
+
     SellerDao dao = DaoFactory.createSellerDao();
+    SellerSearchIndex searchIndex = ServiceFactory.getSellerSearchIndex();
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     public List<Seller> findAll() {
         return dao.findAll();
     }
 
+    public Seller findById(Integer id) {
+        return dao.findById(id);
+    }
+
+    public List<Seller> findByIds(Collection<Integer> ids) {
+        return dao.findByIds(ids, batchSize);
+    }
+
+    public List<Seller> findPage(Seller after) {
+        return dao.findPage(after, pageSize);
+    }
+
+    public List<Seller> findPage(SellerFilter filter, Seller after) {
+        return dao.findPage(filter, after, pageSize);
+    }
+
+    public List<Seller> findRange(SellerFilter filter, int offset, int limit) {
+        return dao.findRange(filter, offset, limit);
+    }
+
+    public List<Integer> findIds(SellerFilter filter, List<int[]> ranges) {
+        List<Integer> ids = new ArrayList<>();
+        for (int[] range : ranges) ids.addAll(dao.findIds(filter, range[0], range[1]));
+        return ids;
+    }
+
+    public int count(SellerFilter filter) {
+        return dao.count(filter);
+    }
+
+    public List<Seller> findByDepartment(Department department) {
+        return dao.findByDepartment(department);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("Page size must be positive.");
+        this.pageSize = pageSize;
+    }
+
     public void saveOrUpdate(Seller seller) {
         if (seller.getId() == null) dao.insert(seller);
         else dao.update(seller);
+        UnitOfWork.afterCommit(() -> searchIndex.put(seller));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+    }
+
+    public void saveOrUpdateAll(Collection<Seller> sellers) {
+        List<Seller> inserts = new ArrayList<>();
+        List<Seller> updates = new ArrayList<>();
+        for (Seller seller : sellers) {
+            if (seller.getId() == null) inserts.add(seller);
+            else updates.add(seller);
+        }
+        UnitOfWork.run(() -> {
+            if (!updates.isEmpty()) dao.updateAll(updates, batchSize);
+            if (!inserts.isEmpty()) dao.insertAll(inserts, batchSize);
+            UnitOfWork.afterCommit(() -> searchIndex.putAll(sellers));
+            UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        });
     }
 
     public void remove(Seller seller) {
         dao.deleteById(seller.getId());
+        UnitOfWork.afterCommit(() -> searchIndex.remove(seller.getId()));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+    }
+
+    public static void validate(Seller seller) {
+        ValidationException exception = new ValidationException("Validation error.");
+        if (seller.getName() == null || seller.getName().trim().equals("")) exception.addError("name", "Field can`n be empty.");
+        else if (seller.getName().length() > NAME_MAX_LENGTH) exception.addError("name", "Field can`t exceed " + NAME_MAX_LENGTH + " characters.");
+        if (seller.getEmail() == null || seller.getEmail().trim().equals("")) exception.addError("email", "Field can`n be empty.");
+        else if (seller.getEmail().length() > EMAIL_MAX_LENGTH) exception.addError("email", "Field can`t exceed " + EMAIL_MAX_LENGTH + " characters.");
+        if (seller.getBirthDate() == null) exception.addError("birthDate", "Field can`n be empty.");
+        if (seller.getBaseSalary() == null) exception.addError("baseSalary", "Field can`n be empty.");
+        if (seller.getDepartment() == null) exception.addError("department", "Field can`n be empty.");
+        if (exception.getErrors().size() > 0) throw exception;
+    }
+
+    public BatchReport insertAll(Collection<Seller> sellers) {
+        BatchReport report = dao.insertAll(sellers, batchSize);
+        UnitOfWork.afterCommit(() -> searchIndex.putAll(sellers));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        return report;
+    }
+
+    public BatchReport updateAll(Collection<Seller> sellers) {
+        BatchReport report = dao.updateAll(sellers, batchSize);
+        UnitOfWork.afterCommit(() -> searchIndex.putAll(sellers));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        return report;
+    }
+
+    public int deleteByIds(Collection<Integer> ids) {
+        int rows = dao.deleteByIds(ids, batchSize);
+        UnitOfWork.afterCommit(() -> searchIndex.removeAll(ids));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        return rows;
+    }
+
+    public int reassignDepartment(Collection<Integer> ids, Department department) {
+        if (department == null || department.getId() == null) throw new IllegalArgumentException("Department must be saved before sellers can be moved to it.");
+        int rows = dao.reassignDepartment(ids, department, batchSize);
+        UnitOfWork.afterCommit(() -> searchIndex.reassignDepartment(ids, department.getId()));
+        UnitOfWork.afterCommit(SellerAnalyticsService::invalidate);
+        return rows;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive.");
+        this.batchSize = batchSize;
+    }
+
+    public long streamAll(Consumer<Seller> action) {
+        return dao.streamAll(STREAM_FETCH_SIZE, action);
+    }
+
+    public List<SellerSearchIndex.Hit> search(String query) {
+        return searchIndex.search(query, SellerSearchIndex.DEFAULT_LIMIT);
+    }
+
+    public CompletableFuture<List<Seller>> findAllAsync() {
+        return ServiceExecutor.supplyAsync(this::findAll);
+    }
+
+    public CompletableFuture<Seller> findByIdAsync(Integer id) {
+        return ServiceExecutor.supplyAsync(() -> findById(id));
+    }
+
+    public CompletableFuture<List<Seller>> findByIdsAsync(Collection<Integer> ids) {
+        return ServiceExecutor.supplyAsync(() -> findByIds(ids));
+    }
+
+    public CompletableFuture<List<Seller>> findPageAsync(Seller after) {
+        return ServiceExecutor.supplyAsync(() -> findPage(after));
+    }
+
+    public CompletableFuture<List<Seller>> findPageAsync(SellerFilter filter, Seller after) {
+        return ServiceExecutor.supplyCancellable(() -> findPage(filter, after));
+    }
+
+    public CompletableFuture<List<Seller>> findRangeAsync(SellerFilter filter, int offset, int limit) {
+        return ServiceExecutor.supplyCancellable(() -> findRange(filter, offset, limit));
+    }
+
+    public CompletableFuture<List<Integer>> findIdsAsync(SellerFilter filter, List<int[]> ranges) {
+        return ServiceExecutor.supplyAsync(() -> findIds(filter, ranges));
+    }
+
+    public CompletableFuture<Integer> countAsync(SellerFilter filter) {
+        return ServiceExecutor.supplyCancellable(() -> count(filter));
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAsync(Seller seller) {
+        return ServiceExecutor.runAsync(() -> saveOrUpdate(seller));
+    }
+
+    public CompletableFuture<Void> saveOrUpdateAllAsync(Collection<Seller> sellers) {
+        return ServiceExecutor.runAsync(() -> saveOrUpdateAll(sellers));
+    }
+
+    public CompletableFuture<Void> removeAsync(Seller seller) {
+        return ServiceExecutor.runAsync(() -> remove(seller));
+    }
+
+    public CompletableFuture<Integer> deleteByIdsAsync(Collection<Integer> ids) {
+        return ServiceExecutor.supplyAsync(() -> deleteByIds(ids));
+    }
+
+    public CompletableFuture<Integer> reassignDepartmentAsync(Collection<Integer> ids, Department department) {
+        return ServiceExecutor.supplyAsync(() -> reassignDepartment(ids, department));
     }
 }
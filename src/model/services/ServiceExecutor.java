@@ -0,0 +1,41 @@
+package model.services;
+
+import db.CancellableQuery;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ServiceExecutor {
+
+    private static final int THREADS = 4;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread thread = new Thread(r, "service-worker-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    public static <T> CompletableFuture<T> supplyCancellable(Supplier<T> supplier) {
+        CancellableQuery query = new CancellableQuery();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> query.run(supplier), executor);
+        future.whenCompleteAsync((result, error) -> {
+            if (future.isCancelled()) query.cancel();
+        });
+        return future;
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable action) {
+        return CompletableFuture.runAsync(action, executor);
+    }
+
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+}
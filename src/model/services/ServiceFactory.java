@@ -0,0 +1,29 @@
+package model.services;
+
+public class ServiceFactory {
+
+    private static SellerService sellerService;
+    private static DepartmentService departmentService;
+    private static SellerAnalyticsService sellerAnalyticsService;
+    private static SellerSearchIndex sellerSearchIndex;
+
+    public static synchronized SellerService getSellerService() {
+        if (sellerService == null) sellerService = new SellerService();
+        return sellerService;
+    }
+
+    public static synchronized DepartmentService getDepartmentService() {
+        if (departmentService == null) departmentService = new DepartmentService();
+        return departmentService;
+    }
+
+    public static synchronized SellerAnalyticsService getSellerAnalyticsService() {
+        if (sellerAnalyticsService == null) sellerAnalyticsService = new SellerAnalyticsService();
+        return sellerAnalyticsService;
+    }
+
+    public static synchronized SellerSearchIndex getSellerSearchIndex() {
+        if (sellerSearchIndex == null) sellerSearchIndex = new SellerSearchIndex();
+        return sellerSearchIndex;
+    }
+}
@@ -0,0 +1,240 @@
+package model.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+public class TableExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] SELLER_COLUMNS = {"Id", "Name", "Email", "BirthDate", "BaseSalary", "DepartmentId", "Department"};
+    private static final String[] DEPARTMENT_COLUMNS = {"Id", "Name"};
+
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public CompletableFuture<Long> exportSellersAsync(SellerService service, Path target) {
+        return ServiceExecutor.supplyAsync(() -> exportSellers(service, target));
+    }
+
+    public CompletableFuture<Long> exportDepartmentsAsync(DepartmentService service, Path target) {
+        return ServiceExecutor.supplyAsync(() -> exportDepartments(service, target));
+    }
+
+    public long exportSellers(SellerService service, Path target) {
+        try (RowWriter writer = RowWriter.open(target, SELLER_COLUMNS)) {
+            long rows = service.streamAll(seller -> {
+                checkCancelled();
+                writer.row(seller.getId(), seller.getName(), seller.getEmail(), toLocalDate(seller.getBirthDate()),
+                        seller.getBaseSalary(), seller.getDepartment().getId(), seller.getDepartment().getName());
+            });
+            writer.commit();
+            return rows;
+        }
+    }
+
+    public long exportDepartments(DepartmentService service, Path target) {
+        try (RowWriter writer = RowWriter.open(target, DEPARTMENT_COLUMNS)) {
+            long rows = service.streamAll(department -> {
+                checkCancelled();
+                writer.row(department.getId(), department.getName());
+            });
+            writer.commit();
+            return rows;
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled) throw new CancellationException("Export was cancelled.");
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    private abstract static class RowWriter implements AutoCloseable {
+
+        protected final Writer out;
+        protected final String[] columns;
+        private Path temp;
+        private Path target;
+        private boolean committed = false;
+
+        RowWriter(Writer out, String[] columns) {
+            this.out = out;
+            this.columns = columns;
+        }
+
+        static RowWriter open(Path target, String[] columns) {
+            Path temp = null;
+            try {
+                Path dir = target.toAbsolutePath().getParent();
+                temp = Files.createTempFile(dir, target.getFileName().toString(), ".part");
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8), BUFFER_SIZE);
+                boolean json = target.getFileName().toString().toLowerCase().endsWith(".json");
+                RowWriter writer = json ? new JsonRowWriter(out, columns) : new CsvRowWriter(out, columns);
+                writer.temp = temp;
+                writer.target = target;
+                writer.begin();
+                return writer;
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void commit() {
+            try {
+                end();
+                out.close();
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                committed = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void row(Object... values) {
+            try {
+                writeRow(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (committed) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                // the partial export is discarded below
+            }
+            deleteQuietly(temp);
+        }
+
+        private static void deleteQuietly(Path file) {
+            if (file == null) return;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // nothing left to clean up
+            }
+        }
+
+        abstract void begin() throws IOException;
+
+        abstract void writeRow(Object[] values) throws IOException;
+
+        abstract void end() throws IOException;
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() throws IOException {
+            writeRow(columns);
+        }
+
+        @Override
+        void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                Object value = values[i];
+                if (value == null) continue;
+                String text = value instanceof Double ? String.format(Locale.US, "%.2f", value) : value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+                    out.write('"');
+                    out.write(text.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(text);
+                }
+            }
+            out.write('\n');
+        }
+
+        @Override
+        void end() {
+        }
+    }
+
+    private static class JsonRowWriter extends RowWriter {
+
+        private boolean first = true;
+
+        JsonRowWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write('[');
+        }
+
+        @Override
+        void writeRow(Object[] values) throws IOException {
+            out.write(first ? "\n  {" : ",\n  {");
+            first = false;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(", ");
+                writeString(columns[i]);
+                out.write(": ");
+                Object value = values[i];
+                if (value == null) out.write("null");
+                else if (value instanceof Number) out.write(value.toString());
+                else writeString(value.toString());
+            }
+            out.write('}');
+        }
+
+        @Override
+        void end() throws IOException {
+            out.write(first ? "]\n" : "\n]\n");
+        }
+
+        private void writeString(String text) throws IOException {
+            out.write('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                        else out.write(c);
+                    }
+                }
+            }
+            out.write('"');
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package model.services;
+
+import db.ConnectionPool;
+import db.DB;
+import db.DbException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+public class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+    private final ConnectionPool pool;
+    private final UnitOfWork root;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean completed = false;
+    private boolean committed = false;
+    private boolean rollbackOnly = false;
+
+    private UnitOfWork(ConnectionPool pool, UnitOfWork root) {
+        this.pool = pool;
+        this.root = root == null ? this : root;
+    }
+
+    public static UnitOfWork begin() {
+        UnitOfWork active = current.get();
+        if (active != null) return new UnitOfWork(active.pool, active);
+
+        ConnectionPool pool = DB.getPool();
+        pool.beginTransaction();
+        UnitOfWork unitOfWork = new UnitOfWork(pool, null);
+        current.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    public static void afterCommit(Runnable action) {
+        UnitOfWork active = current.get();
+        if (active == null) action.run();
+        else active.afterCommit.add(action);
+    }
+
+    public static <T> T execute(Supplier<T> work) {
+        try (UnitOfWork unitOfWork = begin()) {
+            T result = work.get();
+            unitOfWork.commit();
+            return result;
+        }
+    }
+
+    public static void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <T> CompletableFuture<T> executeAsync(Supplier<T> work) {
+        return ServiceExecutor.supplyAsync(() -> execute(work));
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable work) {
+        return ServiceExecutor.runAsync(() -> run(work));
+    }
+
+    public void commit() {
+        if (completed) throw new IllegalStateException("Unit of work was already completed.");
+        completed = true;
+        if (root != this) return;
+        if (rollbackOnly) {
+            pool.rollback();
+            throw new DbException("Transaction was rolled back by a nested unit of work.");
+        }
+        pool.commit();
+        committed = true;
+    }
+
+    public void rollback() {
+        if (completed) throw new IllegalStateException("Unit of work was already completed.");
+        completed = true;
+        if (root != this) root.rollbackOnly = true;
+        else pool.rollback();
+    }
+
+    @Override
+    public void close() {
+        if (root != this) {
+            if (!completed) root.rollbackOnly = true;
+            return;
+        }
+        try {
+            if (!completed) {
+                completed = true;
+                pool.rollback();
+            }
+        } finally {
+            current.remove();
+            pool.endTransaction();
+        }
+        if (committed) afterCommit.forEach(Runnable::run);
+    }
+}
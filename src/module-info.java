@@ -3,6 +3,7 @@ module workshopjavafxjdbc {
     requires javafx.fxml;
     requires javafx.graphics;
     requires java.sql;
+    requires java.management;
 
     opens application to javafx.fxml;
     opens gui;
@@ -13,4 +14,5 @@ module workshopjavafxjdbc {
     opens gui.util;
     exports gui.listeners;
     opens gui.listeners;
+    exports db to java.management;
 }